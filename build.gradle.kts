@@ -13,6 +13,7 @@ plugins {
     alias(libs.plugins.versions)
     alias(libs.plugins.indra)
     alias(libs.plugins.indra.publishing)
+    alias(libs.plugins.jmh)
     id("com.gradleup.nmcp").version("1.4.4")
     id("com.gradleup.nmcp.aggregation").version("1.4.4")
 }
@@ -115,6 +116,10 @@ bukkit {
     foliaSupported = true
 }
 
+jmh {
+    profilers.add("gc")
+}
+
 license {
     style.put("java", "DOUBLE_SLASH")
     newLine(false)
@@ -125,6 +130,9 @@ configurations {
     testImplementation {
         extendsFrom(compileOnly.get())
     }
+    jmhImplementation {
+        extendsFrom(compileOnly.get())
+    }
 }
 
 tasks {
@@ -0,0 +1,117 @@
+//
+// MIT License
+//
+// Copyright (c) 2024 Cultivate Games
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+package games.cultivate.mcmmocredits.database;
+
+import games.cultivate.mcmmocredits.user.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures write throughput of file-backed databases under concurrent callers, with and without the write-behind queue.
+ * On SQLite every write goes through the single writer, so this shows the cost of serializing writes against lock contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class WriteBenchmark {
+    private static final int USERS = 1000;
+    @Param({"SQLITE", "H2"})
+    private DatabaseType type;
+    @Param({"false", "true"})
+    private boolean writeBehind;
+    private Path path;
+    private AbstractDatabase database;
+    private List<UUID> uuids;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.path = Files.createTempDirectory("mcmmocredits-bench");
+        DatabaseOptions options = new DatabaseOptions(true, 0, this.writeBehind, 1000L, 500, false);
+        this.database = new DatabaseProperties(this.type, "", "", "").create(this.path, options);
+        this.uuids = new ArrayList<>(USERS);
+        List<User> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            UUID uuid = UUID.randomUUID();
+            this.uuids.add(uuid);
+            users.add(new User(uuid, "user" + i, 1000, 0));
+        }
+        this.database.addUsers(users).join();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.database.disable();
+        try (Stream<Path> files = Files.walk(this.path)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean setCredits() {
+        return this.database.setCredits(this.randomUser(), ThreadLocalRandom.current().nextInt(10000)).join();
+    }
+
+    @Benchmark
+    public List<User> transfer() {
+        UUID from = this.randomUser();
+        UUID to = this.randomUser();
+        if (from.equals(to)) {
+            return List.of();
+        }
+        return this.database.applyDeltas(Map.of(from, -1, to, 1)).join();
+    }
+
+    private UUID randomUser() {
+        return this.uuids.get(ThreadLocalRandom.current().nextInt(USERS));
+    }
+}
@@ -0,0 +1,80 @@
+//
+// MIT License
+//
+// Copyright (c) 2024 Cultivate Games
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+package games.cultivate.mcmmocredits.text;
+
+import games.cultivate.mcmmocredits.placeholders.Resolver;
+import games.cultivate.mcmmocredits.user.User;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing a message with a TagResolver on every send against rendering its compiled template.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateBenchmark {
+    @Param({"<#FF253C><bold>CREDITS</bold> <gray>» <green>The configuration file has been reloaded.",
+            "<#FF253C><bold>CREDITS</bold> <gray>» <green><sender> has given <target> <amount> credits! They now have <target_credits> credits."})
+    private String content;
+    private User sender;
+    private User target;
+    private Template template;
+
+    @Setup
+    public void setUp() {
+        this.sender = new User(UUID.randomUUID(), "Sender", 100, 10);
+        this.target = new User(UUID.randomUUID(), "Target", 200, 20);
+        this.template = Template.compile(this.content);
+    }
+
+    @Benchmark
+    public Component parse() {
+        Resolver resolver = Resolver.ofUsers(this.sender, this.target).addTag("amount", 5);
+        return MiniMessage.miniMessage().deserialize(this.content, resolver.toTagResolver());
+    }
+
+    @Benchmark
+    public Component render() {
+        Resolver resolver = Resolver.ofUsers(this.sender, this.target).addTag("amount", 5);
+        return this.template.render(resolver);
+    }
+}
@@ -32,13 +32,17 @@ import games.cultivate.mcmmocredits.converters.Converter;
 import games.cultivate.mcmmocredits.database.AbstractDatabase;
 import games.cultivate.mcmmocredits.inject.PluginModule;
 import games.cultivate.mcmmocredits.placeholders.CreditsExpansion;
+import games.cultivate.mcmmocredits.user.UserService;
 import games.cultivate.mcmmocredits.util.Listeners;
 import org.bstats.bukkit.Metrics;
 import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.PluginManager;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.slf4j.Logger;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Main class of the application. Handles startup and shutdown logic.
  */
@@ -72,6 +76,7 @@ public final class MCMMOCredits extends JavaPlugin {
         this.runConversionProcess();
         this.loadCommands();
         this.registerListeners();
+        this.loadLeaderboard();
         api = this.injector.getInstance(MCMMOCreditsAPI.class);
         this.enableMetrics();
         long end = System.nanoTime();
@@ -124,6 +129,28 @@ public final class MCMMOCredits extends JavaPlugin {
         this.logger.info("Listeners registered!");
     }
 
+    /**
+     * Loads the in-memory leaderboard if the leaderboard is enabled in configuration, or if PlaceholderAPI is present.
+     * The rank and top placeholders are only served from the snapshot, so it is always maintained when they can be requested.
+     * The leaderboard is reloaded periodically, so that changes made by other servers sharing the database are picked up.
+     * The snapshot used by placeholders is rebuilt more often, since it only covers the top users and online players.
+     */
+    private void loadLeaderboard() {
+        boolean placeholders = Bukkit.getPluginManager().getPlugin("PlaceholderAPI") != null;
+        if (!placeholders && !this.configs.mainConfig().getBoolean("settings", "leaderboard-enabled")) {
+            return;
+        }
+        UserService service = this.injector.getInstance(UserService.class);
+        long minutes = this.configs.mainConfig().getInteger("settings", "leaderboard-refresh-minutes");
+        service.loadLeaderboard();
+        if (minutes > 0) {
+            Bukkit.getAsyncScheduler().runAtFixedRate(this, x -> service.loadLeaderboard(), minutes, minutes, TimeUnit.MINUTES);
+        }
+        int size = this.configs.mainConfig().getInteger("settings", "placeholder-top-size");
+        long seconds = Math.max(1, this.configs.mainConfig().getInteger("settings", "placeholder-refresh-seconds"));
+        Bukkit.getAsyncScheduler().runAtFixedRate(this, x -> service.refreshSnapshot(size, Bukkit.getOnlinePlayers().stream().map(Player::getUniqueId).toList()), seconds, seconds, TimeUnit.SECONDS);
+    }
+
     /**
      * Enables BStats if it is enabled in configuration.
      */
@@ -23,6 +23,7 @@
 //
 package games.cultivate.mcmmocredits;
 
+import games.cultivate.mcmmocredits.transaction.TransactionEngine;
 import games.cultivate.mcmmocredits.user.User;
 import games.cultivate.mcmmocredits.user.UserService;
 import jakarta.inject.Inject;
@@ -38,15 +39,18 @@ import java.util.concurrent.CompletableFuture;
 @SuppressWarnings("unused")
 public class MCMMOCreditsAPI {
     private final UserService service;
+    private final TransactionEngine engine;
 
     /**
      * Constructs the object.
      *
      * @param service UserService, used to apply actions within the API.
+     * @param engine  TransactionEngine, used to order every balance change with other transactions.
      */
     @Inject
-    public MCMMOCreditsAPI(final UserService service) {
+    public MCMMOCreditsAPI(final UserService service, final TransactionEngine engine) {
         this.service = service;
+        this.engine = engine;
     }
 
     /**
@@ -67,8 +71,7 @@ public class MCMMOCreditsAPI {
      * @return True if the transaction was successful, otherwise false.
      */
     public boolean addCredits(final UUID uuid, final int amount) {
-        int result = this.getCredits(uuid) + amount;
-        return result >= 0 && this.service.setCredits(uuid, result).join();
+        return this.engine.addCredits(uuid, amount).join();
     }
 
     /**
@@ -79,7 +82,7 @@ public class MCMMOCreditsAPI {
      * @return True if the transaction was successful, otherwise false.
      */
     public boolean setCredits(final UUID uuid, final int amount) {
-        return amount >= 0 && this.service.setCredits(uuid, amount).join();
+        return amount >= 0 && this.engine.setCredits(uuid, amount).join();
     }
 
     /**
@@ -90,8 +93,7 @@ public class MCMMOCreditsAPI {
      * @return True if the transaction was successful, otherwise false.
      */
     public boolean takeCredits(final UUID uuid, final int amount) {
-        int result = this.getCredits(uuid) - amount;
-        return result >= 0 && this.service.setCredits(uuid, result).join();
+        return this.engine.addCredits(uuid, -amount).join();
     }
 
     /**
@@ -134,7 +136,7 @@ public class MCMMOCreditsAPI {
      * @return True if the transaction was successful, otherwise false.
      */
     public CompletableFuture<Boolean> addCreditsAsync(final UUID uuid, final int amount) {
-        return this.getCreditsAsync(uuid).thenCompose(c -> this.setCreditsAsync(uuid, c + amount));
+        return this.engine.addCredits(uuid, amount);
     }
 
     /**
@@ -145,7 +147,7 @@ public class MCMMOCreditsAPI {
      * @return True if the transaction was successful, otherwise false.
      */
     public CompletableFuture<Boolean> setCreditsAsync(final UUID uuid, final int amount) {
-        return amount >= 0 ? this.service.setCredits(uuid, amount) : CompletableFuture.completedFuture(false);
+        return amount >= 0 ? this.engine.setCredits(uuid, amount) : CompletableFuture.completedFuture(false);
     }
 
     /**
@@ -156,7 +158,7 @@ public class MCMMOCreditsAPI {
      * @return True if the transaction was successful, otherwise false.
      */
     public CompletableFuture<Boolean> takeCreditsAsync(final UUID uuid, final int amount) {
-        return this.getCreditsAsync(uuid).thenCompose(c -> this.setCreditsAsync(uuid, c - amount));
+        return this.engine.addCredits(uuid, -amount);
     }
 
     /**
@@ -179,7 +179,7 @@ public final class CommandHandler {
      * @param <E>   The Exception type. Differs per registration.
      */
     private <E extends Exception> void register(final Class<E> ex, final String path, final String key, final BiFunction<CommandExecutor, E, String> value) {
-        this.manager.registerExceptionHandler(ex, (c, e) -> c.sendText(this.configs.getMessage(path), r -> r.addTag(key, value.apply(c, e))));
+        this.manager.registerExceptionHandler(ex, (c, e) -> c.sendText(this.configs.getTemplate(path), r -> r.addTag(key, value.apply(c, e))));
     }
 
     /**
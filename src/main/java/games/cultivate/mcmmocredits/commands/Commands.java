@@ -30,9 +30,14 @@ import cloud.commandframework.annotations.CommandPermission;
 import cloud.commandframework.annotations.Flag;
 import cloud.commandframework.annotations.specifier.Range;
 import cloud.commandframework.context.CommandContext;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.gmail.nossr50.datatypes.skills.PrimarySkillType;
 import games.cultivate.mcmmocredits.MCMMOCredits;
 import games.cultivate.mcmmocredits.config.ConfigService;
+import games.cultivate.mcmmocredits.database.AbstractDatabase;
+import games.cultivate.mcmmocredits.database.LeaderboardPage;
+import games.cultivate.mcmmocredits.database.WriteBehindQueue;
 import games.cultivate.mcmmocredits.events.CreditTransactionEvent;
 import games.cultivate.mcmmocredits.placeholders.Resolver;
 import games.cultivate.mcmmocredits.transaction.Transaction;
@@ -43,6 +48,11 @@ import games.cultivate.mcmmocredits.user.UserService;
 import jakarta.inject.Inject;
 import org.bukkit.Bukkit;
 
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Handles all commands. Prefix is customizable via config.
  * Default is /credits.
@@ -53,19 +63,24 @@ public final class Commands {
     private final ConfigService configs;
     private final MCMMOCredits plugin;
     private final UserService service;
+    private final AbstractDatabase database;
+    private final Cache<String, LeaderboardPage> pages;
 
     /**
      * Constructs the object.
      *
-     * @param configs ConfigService to obtain configs.
-     * @param plugin  Plugin instance to obtain main thread executor.
-     * @param service The UserService to obtain users.
+     * @param configs  ConfigService to obtain configs.
+     * @param plugin   Plugin instance to obtain main thread executor.
+     * @param service  The UserService to obtain users.
+     * @param database The Database, used to obtain statistics.
      */
     @Inject
-    public Commands(final ConfigService configs, final MCMMOCredits plugin, final UserService service) {
+    public Commands(final ConfigService configs, final MCMMOCredits plugin, final UserService service, final AbstractDatabase database) {
         this.configs = configs;
         this.plugin = plugin;
         this.service = service;
+        this.database = database;
+        this.pages = Caffeine.newBuilder().maximumSize(1000).expireAfterAccess(5, TimeUnit.MINUTES).build();
     }
 
     /**
@@ -77,7 +92,7 @@ public final class Commands {
     @CommandPermission("mcmmocredits.balance.self")
     @CommandDescription("Allows user to check credit statistics.")
     public void balance(final User user) {
-        user.sendText(this.configs.getMessage("balance"));
+        user.sendText(this.configs.getTemplate("balance"));
     }
 
     /**
@@ -90,7 +105,7 @@ public final class Commands {
     @CommandPermission("mcmmocredits.balance.other")
     @CommandDescription("Allows user to check someone else's credit statistics.")
     public void balanceOther(final CommandExecutor executor, final @Argument User user) {
-        executor.sendText(this.configs.getMessage("balance-other"), r -> r.addUser(user, "target"));
+        executor.sendText(this.configs.getTemplate("balance-other"), r -> r.addUser(user, "target"));
     }
 
     /**
@@ -215,26 +230,46 @@ public final class Commands {
     @CommandPermission("mcmmocredits.leaderboard")
     @CommandDescription("Shows the specified page of the leaderboard.")
     public void top(final CommandExecutor executor, @Argument @Range(min = "1") Integer page) {
-        if (!this.configs.mainConfig().getBoolean("settings", "leaderboard-enabled")) {
-            executor.sendText(this.configs.getMessage("invalid-leaderboard"));
+        if (this.isLeaderboardDisabled(executor)) {
             return;
         }
         int limit = this.configs.mainConfig().getInteger("settings", "leaderboard-page-size");
-        int offset = Math.max(0, (page == null ? 0 : page - 1) * limit);
-        this.service.rangeOfUsers(limit, offset).thenAccept(users -> {
-            if (users.isEmpty()) {
-                executor.sendText(this.configs.getMessage("invalid-leaderboard"));
-                return;
-            }
-            executor.sendText(this.configs.mainConfig().getString("leaderboard-title"));
-            Resolver resolver = Resolver.ofUser(executor);
-            String entry = this.configs.mainConfig().getString("leaderboard-entry");
-            for (int i = 1; i <= users.size(); i++) {
-                executor.sendText(entry, resolver.addUser(users.get(i - 1), "target").addTag("rank", i + offset));
-            }
+        //The last page viewed by the executor lets the next page seek past it, instead of skipping users.
+        this.service.pageOfUsers(page == null ? 1 : page, limit, this.pages.getIfPresent(executor.username())).thenAccept(x -> {
+            this.pages.put(executor.username(), x);
+            this.sendLeaderboard(executor, x);
         });
     }
 
+    /**
+     * Processes the {@literal /credits rank} command.
+     *
+     * @param user CommandExecutor. Must be an online player.
+     */
+    @CommandMethod("rank")
+    @CommandPermission("mcmmocredits.leaderboard")
+    @CommandDescription("Shows the page of the leaderboard containing the user.")
+    public void rank(final User user) {
+        this.rankOther(user, user);
+    }
+
+    /**
+     * Processes the {@literal /credits rank <user>} command.
+     *
+     * @param executor CommandExecutor. Can be Console.
+     * @param user     The user to find. Must be a player, but can be offline/online.
+     */
+    @CommandMethod("rank <user>")
+    @CommandPermission("mcmmocredits.leaderboard")
+    @CommandDescription("Shows the page of the leaderboard containing someone else.")
+    public void rankOther(final CommandExecutor executor, final @Argument User user) {
+        if (this.isLeaderboardDisabled(executor)) {
+            return;
+        }
+        int limit = this.configs.mainConfig().getInteger("settings", "leaderboard-page-size");
+        this.service.pageOfUser(user.uuid(), limit).thenAccept(x -> this.sendLeaderboard(executor, x));
+    }
+
     /**
      * Processes the {@literal /credits menu} command.
      *
@@ -244,7 +279,7 @@ public final class Commands {
     @CommandPermission("mcmmocredits.redeem.menu")
     @CommandDescription("Allows user to open the Redeem Menu.")
     public void openRedeemMenu(final User executor) {
-        this.configs.menuConfig().getMenu().openInventory(this.plugin, executor);
+        this.configs.getMenu().openInventory(this.plugin, this.service, executor);
     }
 
     /**
@@ -257,6 +292,60 @@ public final class Commands {
     @CommandDescription("Reloads the configuration files with most changes applied.")
     public void reload(final CommandExecutor executor) {
         this.configs.reloadConfigs();
-        executor.sendText(this.configs.getMessage("reload"));
+        executor.sendText(this.configs.getTemplate("reload"));
+    }
+
+    /**
+     * Checks if the leaderboard is disabled, and notifies the executor if it is.
+     *
+     * @param executor CommandExecutor. Can be Console.
+     * @return True if the leaderboard is disabled, false otherwise.
+     */
+    private boolean isLeaderboardDisabled(final CommandExecutor executor) {
+        if (!this.configs.mainConfig().getBoolean("settings", "leaderboard-enabled")) {
+            executor.sendText(this.configs.getTemplate("invalid-leaderboard"));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Sends a page of the leaderboard to the executor.
+     *
+     * @param executor CommandExecutor. Can be Console.
+     * @param page     The page to send.
+     */
+    private void sendLeaderboard(final CommandExecutor executor, final LeaderboardPage page) {
+        List<User> users = page.users();
+        if (users.isEmpty()) {
+            executor.sendText(this.configs.getTemplate("invalid-leaderboard"));
+            return;
+        }
+        executor.sendText(this.configs.mainConfig().getString("leaderboard-title"));
+        Resolver resolver = Resolver.ofUser(executor);
+        String entry = this.configs.mainConfig().getString("leaderboard-entry");
+        for (int i = 0; i < users.size(); i++) {
+            executor.sendText(entry, resolver.addUser(users.get(i), "target").addTag("rank", page.rank() + i));
+        }
+    }
+
+    /**
+     * Processes the {@literal /credits stats} command.
+     *
+     * @param executor CommandExecutor. Can be Console.
+     */
+    @CommandMethod("stats")
+    @CommandPermission("mcmmocredits.admin")
+    @CommandDescription("Shows statistics about the plugin's database usage.")
+    public void stats(final CommandExecutor executor) {
+        Optional<WriteBehindQueue> queue = this.database.writeQueue();
+        executor.sendText(this.configs.getTemplate("stats"), r -> r
+                .addTag("queue_depth", queue.map(WriteBehindQueue::depth).orElse(0))
+                .addTag("flush_time", String.format(Locale.ROOT, "%.2f", queue.map(WriteBehindQueue::averageFlushMillis).orElse(0D)))
+                .addTag("query_wait", String.format(Locale.ROOT, "%.2f", this.database.threads().averageWaitMillis()))
+                .addTag("cache_size", this.service.cacheSize())
+                .addTag("cache_hit_rate", String.format(Locale.ROOT, "%.2f", this.service.cacheStats().hitRate() * 100))
+                .addTag("cache_evictions", this.service.cacheStats().evictionCount())
+                .addTag("cache_dedup", this.service.deduplicatedLoads()));
     }
 }
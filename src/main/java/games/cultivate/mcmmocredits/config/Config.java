@@ -24,6 +24,7 @@
 package games.cultivate.mcmmocredits.config;
 
 import games.cultivate.mcmmocredits.menu.RedeemMenu;
+import games.cultivate.mcmmocredits.text.Template;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.spongepowered.configurate.ConfigurateException;
@@ -34,6 +35,9 @@ import org.spongepowered.configurate.serialize.SerializationException;
 import org.spongepowered.configurate.util.NamingSchemes;
 import org.spongepowered.configurate.yaml.YamlConfigurationLoader;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * A Configuration File.
  *
@@ -43,6 +47,8 @@ public final class Config<D extends Data> {
     private final YamlConfigurationLoader loader;
     private final ObjectMapper.Factory factory;
     private ConfigurationNode root;
+    private Map<Object, Template> messages;
+    private boolean hasMessages;
 
     /**
      * Constructs the object.
@@ -52,6 +58,7 @@ public final class Config<D extends Data> {
     public Config(final YamlConfigurationLoader loader) {
         this.loader = loader;
         this.factory = ObjectMapper.factoryBuilder().defaultNamingScheme(NamingSchemes.LOWER_CASE_DASHED).build();
+        this.messages = Map.of();
     }
 
     /**
@@ -64,6 +71,8 @@ public final class Config<D extends Data> {
             this.root = this.loader.load();
             this.factory.get(type).load(this.root);
             this.save();
+            this.hasMessages = type == MainData.class;
+            this.compileMessages();
         } catch (ConfigurateException e) {
             e.printStackTrace();
         }
@@ -92,6 +101,7 @@ public final class Config<D extends Data> {
         try {
             this.root.node(path).set(value);
             this.save();
+            this.compileMessages();
             return true;
         } catch (SerializationException e) {
             e.printStackTrace();
@@ -146,7 +156,19 @@ public final class Config<D extends Data> {
      * @return The value, or the public if the value is null.
      */
     public String getMessage(final Object... path) {
-        return this.getString("prefix") + this.getString(path);
+        return this.getTemplate(path).content();
+    }
+
+    /**
+     * Gets the compiled template of a message, with the prefix prepended.
+     * Top-level messages are compiled when the configuration is loaded, other paths are compiled on every call.
+     *
+     * @param path Node path where the message is found.
+     * @return The template.
+     */
+    public Template getTemplate(final Object... path) {
+        Template template = path.length == 1 ? this.messages.get(path[0]) : null;
+        return template != null ? template : Template.compile(this.getString("prefix") + this.getString(path));
     }
 
     /**
@@ -178,4 +200,22 @@ public final class Config<D extends Data> {
     public @Nullable RedeemMenu getMenu(final Object... path) {
         return this.get(RedeemMenu.class, null, path);
     }
+
+    /**
+     * Prepends the prefix to all top-level messages, and compiles them into templates.
+     * Only the main configuration contains messages, so other configurations are skipped.
+     */
+    private void compileMessages() {
+        if (!this.hasMessages) {
+            return;
+        }
+        Map<Object, Template> compiled = new HashMap<>();
+        String prefix = this.getString("prefix");
+        this.root.childrenMap().forEach((k, v) -> {
+            if (v.rawScalar() instanceof String message) {
+                compiled.put(k, Template.compile(prefix + message));
+            }
+        });
+        this.messages = Map.copyOf(compiled);
+    }
 }
@@ -28,6 +28,7 @@ import games.cultivate.mcmmocredits.menu.Item;
 import games.cultivate.mcmmocredits.menu.RedeemMenu;
 import games.cultivate.mcmmocredits.serializers.ItemSerializer;
 import games.cultivate.mcmmocredits.serializers.MenuSerializer;
+import games.cultivate.mcmmocredits.text.Template;
 import games.cultivate.mcmmocredits.util.Dir;
 import jakarta.inject.Inject;
 import org.spongepowered.configurate.loader.HeaderMode;
@@ -47,6 +48,7 @@ public final class ConfigService {
     private final Path path;
     private Config<MainData> config;
     private Config<MenuData> menuConfig;
+    private RedeemMenu menu;
 
     /**
      * Constructs the object.
@@ -101,11 +103,12 @@ public final class ConfigService {
     }
 
     /**
-     * Reloads the configurations.
+     * Reloads the configurations. Messages are compiled again when the main configuration is loaded.
      */
     public void reloadConfigs() {
         this.config = this.loadConfig(MainData.class, "config.yml");
         this.menuConfig = this.loadConfig(MenuData.class, "menu.yml");
+        this.menu = this.menuConfig.getMenu();
     }
 
     /**
@@ -140,6 +143,18 @@ public final class ConfigService {
         return this.menuConfig;
     }
 
+    /**
+     * Returns the menu parsed from the Menu Config. The menu is only parsed again when the configurations are reloaded.
+     *
+     * @return The menu.
+     */
+    public RedeemMenu getMenu() {
+        if (this.menu == null) {
+            this.menu = this.menuConfig().getMenu();
+        }
+        return this.menu;
+    }
+
     /**
      * Convenience method to get messages from main configuration.
      *
@@ -150,6 +165,16 @@ public final class ConfigService {
         return this.mainConfig().getMessage(path);
     }
 
+    /**
+     * Convenience method to get compiled messages from main configuration.
+     *
+     * @param path Path of the message.
+     * @return The compiled message.
+     */
+    public Template getTemplate(final Object... path) {
+        return this.mainConfig().getTemplate(path);
+    }
+
     /**
      * Convenience method to get DatabaseProperties.
      *
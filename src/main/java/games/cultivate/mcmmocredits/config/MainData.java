@@ -79,17 +79,31 @@ public final class MainData implements Data {
     private String notEnoughCredits = "<red>You do not have enough credits to do this!";
     private String notEnoughCreditsOther = "<red><target> does not have enough credits for: <transaction>!";
     private String reload = "<green>The configuration file has been reloaded.";
+    private String stats = "<gray>Queued writes: <green><queue_depth></green>, Average flush time: <green><flush_time>ms</green>, Average query wait: <green><query_wait>ms</green>, Cached users: <green><cache_size></green>, Cache hit rate: <green><cache_hit_rate>%</green>, Cache evictions: <green><cache_evictions></green>, Shared loads: <green><cache_dedup>";
     private Settings settings = new Settings();
     private ConverterProperties converter = ConverterProperties.defaults();
 
     @ConfigSerializable
     static class Settings {
         private boolean addUserMessage = true;
+        private boolean binaryUuids = false;
+        private int cacheExpireMinutes = 30;
+        private int cacheMaximumSize = 10000;
+        private int cacheMissingSeconds = 10;
+        private boolean databaseVirtualThreads = true;
+        private int databasePoolSize = 0;
         private boolean metricsEnabled = true;
+        private String placeholderLoading = "...";
+        private int placeholderRefreshSeconds = 1;
+        private int placeholderTopSize = 10;
         private boolean leaderboardEnabled = false;
         private int leaderboardPageSize = 10;
+        private int leaderboardRefreshMinutes = 5;
         private boolean sendLoginMessage = true;
         private boolean userTabComplete = true;
+        private boolean writeBehindEnabled = false;
+        private int writeBehindInterval = 1000;
+        private int writeBehindThreshold = 500;
         private DatabaseProperties database = DatabaseProperties.defaults();
     }
 }
@@ -28,28 +28,31 @@ import games.cultivate.mcmmocredits.user.User;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.util.HashSet;
-import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 /**
  * Data converter which uses database.csv in the plugin's folder.
  */
 public final class CSVConverter implements Converter {
     private final AbstractDatabase database;
-    private final List<User> users;
+    private final Path path;
 
     /**
      * Constructs the object.
      *
      * @param database The database.
      * @param path     The plugin's data folder.
-     * @throws IOException If reading the csv file errors.
+     * @throws IOException If the csv file cannot be read.
      */
     public CSVConverter(final AbstractDatabase database, final Path path) throws IOException {
+        if (!Files.isReadable(path)) {
+            throw new NoSuchFileException(path.toString());
+        }
         this.database = database;
-        this.users = Files.readAllLines(path).stream().map(User::fromCSV).toList();
+        this.path = path;
     }
 
     /**
@@ -57,9 +60,15 @@ public final class CSVConverter implements Converter {
      */
     @Override
     public CompletableFuture<Boolean> run() {
-        return this.database.addUsers(this.users)
-                .thenAccept(x -> { if (this.database.isH2()) this.database.jdbi().useHandle(y -> y.execute("CHECKPOINT SYNC")); })
-                .thenCompose(y -> this.database.getAllUsers())
-                .thenApply(z -> new HashSet<>(this.users).containsAll(z));
+        Stream<String> lines;
+        try {
+            lines = Files.lines(this.path);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        //Lines are read as they are written and verified per chunk, so the file never has to fit in memory.
+        return Converter.copy(this.database, lines.map(User::fromCSV).iterator())
+                .whenComplete((x, t) -> lines.close())
+                .thenCompose(x -> Converter.verifyCount(this.database, x));
     }
 }
@@ -23,16 +23,89 @@
 //
 package games.cultivate.mcmmocredits.converters;
 
+import games.cultivate.mcmmocredits.database.AbstractDatabase;
+import games.cultivate.mcmmocredits.user.User;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 /**
  * Represents a Data Converter.
  */
 public interface Converter {
+    /**
+     * Amount of users copied and verified at once.
+     */
+    int CHUNK_SIZE = 1000;
+
     /**
      * Runs the data conversion process.
      *
      * @return If the process was successful.
      */
     CompletableFuture<Boolean> run();
+
+    /**
+     * Adds a chunk of users to a database, and verifies the chunk by reading every user back.
+     *
+     * @param database The database.
+     * @param chunk    The users.
+     * @return If every user was stored unchanged.
+     */
+    static CompletableFuture<Boolean> copy(final AbstractDatabase database, final List<User> chunk) {
+        return database.addUsers(chunk)
+                .thenCompose(x -> database.getUsers(chunk.stream().map(User::uuid).toList()))
+                .thenApply(x -> x.size() == chunk.size() && new HashSet<>(x).containsAll(chunk));
+    }
+
+    /**
+     * Adds users to a database one chunk at a time, verifying each chunk by reading it back.
+     * Users are only read from the iterator as they are written, so the source does not need to fit in memory.
+     *
+     * @param database The database.
+     * @param users    Iterator of the users.
+     * @return The amount of users copied, or -1 if any user was not stored unchanged.
+     */
+    static CompletableFuture<Integer> copy(final AbstractDatabase database, final Iterator<User> users) {
+        return copy(database, users, 0);
+    }
+
+    /**
+     * Adds the next chunk of users to a database, and continues with the rest of the iterator off the database thread.
+     *
+     * @param database The database.
+     * @param users    Iterator of the users.
+     * @param copied   The amount of users copied so far.
+     * @return The amount of users copied, or -1 if any user was not stored unchanged.
+     */
+    private static CompletableFuture<Integer> copy(final AbstractDatabase database, final Iterator<User> users, final int copied) {
+        List<User> chunk = new ArrayList<>(CHUNK_SIZE);
+        while (chunk.size() < CHUNK_SIZE && users.hasNext()) {
+            chunk.add(users.next());
+        }
+        if (chunk.isEmpty()) {
+            return CompletableFuture.completedFuture(copied);
+        }
+        return copy(database, chunk).thenComposeAsync(x -> x ? copy(database, users, copied + chunk.size()) : CompletableFuture.completedFuture(-1));
+    }
+
+    /**
+     * Verifies that a database contains exactly the expected amount of users, after writing any pending changes to disk.
+     *
+     * @param database The database.
+     * @param expected The expected amount of users, or -1 if verification already failed.
+     * @return If the amount of users matches.
+     */
+    static CompletableFuture<Boolean> verifyCount(final AbstractDatabase database, final int expected) {
+        if (expected < 0) {
+            return CompletableFuture.completedFuture(false);
+        }
+        if (database.isH2()) {
+            database.jdbi().useHandle(x -> x.execute("CHECKPOINT SYNC"));
+        }
+        return database.countUsers().thenApply(x -> x == expected);
+    }
 }
@@ -24,18 +24,16 @@
 package games.cultivate.mcmmocredits.converters;
 
 import games.cultivate.mcmmocredits.database.AbstractDatabase;
-import games.cultivate.mcmmocredits.user.User;
 
-import java.util.HashSet;
-import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Data Converter which uses an older database to convert.
  */
 public final class InternalConverter implements Converter {
-    private final List<User> users;
     private final AbstractDatabase database;
+    private final AbstractDatabase old;
 
     /**
      * Constructs the object.
@@ -45,9 +43,7 @@ public final class InternalConverter implements Converter {
      */
     public InternalConverter(final AbstractDatabase database, final AbstractDatabase old) {
         this.database = database;
-        //All users must be loaded before proceeding.
-        this.users = old.getAllUsers().join();
-        old.disable();
+        this.old = old;
     }
 
     /**
@@ -55,9 +51,16 @@ public final class InternalConverter implements Converter {
      */
     @Override
     public CompletableFuture<Boolean> run() {
-        return this.database.addUsers(this.users)
-                .thenAccept(x -> { if (this.database.isH2()) this.database.jdbi().useHandle(y -> y.execute("CHECKPOINT SYNC")); })
-                .thenCompose(y -> this.database.getAllUsers())
-                .thenApply(z -> new HashSet<>(this.users).containsAll(z));
+        //Users are copied and verified one chunk at a time, so the old table never has to fit in memory.
+        //The old database has its own executor, so waiting for the current database here cannot block either pool.
+        AtomicBoolean matched = new AtomicBoolean(true);
+        return this.old.forEachUser(x -> {
+                    if (!Converter.copy(this.database, x).join()) {
+                        matched.set(false);
+                    }
+                })
+                .thenCompose(x -> this.old.countUsers())
+                .thenCompose(x -> Converter.verifyCount(this.database, matched.get() ? x : -1))
+                .whenComplete((x, t) -> this.old.disable());
     }
 }
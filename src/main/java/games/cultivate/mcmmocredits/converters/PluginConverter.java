@@ -34,10 +34,7 @@ import org.bukkit.configuration.file.YamlConfiguration;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -49,7 +46,6 @@ import java.util.stream.Stream;
  */
 public final class PluginConverter implements Converter {
     private final AbstractDatabase database;
-    private final List<User> users = new ArrayList<>();
     private final Map<UUID, String> cache;
     private final long requestTime;
     private final long failureTime;
@@ -70,7 +66,6 @@ public final class PluginConverter implements Converter {
         this.requestTime = requestTime;
         this.failureTime = failureTime;
         this.cache = this.loadMojangCache();
-        this.loadUsers();
     }
 
     /**
@@ -78,31 +73,33 @@ public final class PluginConverter implements Converter {
      */
     @Override
     public CompletableFuture<Boolean> run() {
-        return this.database.addUsers(this.users)
-                .thenAccept(x -> { if (this.database.isH2()) this.database.jdbi().useHandle(y -> y.execute("CHECKPOINT SYNC")); })
-                .thenCompose(y -> this.database.getAllUsers())
-                .thenApply(z -> new HashSet<>(this.users).containsAll(z));
+        Stream<Path> files;
+        try {
+            files = Files.list(this.path);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        //Files are read as users are written and verified per chunk, so the plugin data never has to fit in memory.
+        return Converter.copy(this.database, files.filter(x -> x.getFileName().toString().endsWith(".yml")).map(this::loadUser).iterator())
+                .whenComplete((x, t) -> files.close())
+                .thenCompose(x -> Converter.verifyCount(this.database, x));
     }
 
     /**
-     * Loads users from the provided file path.
+     * Loads a user from a file of the external plugin data.
+     * If the username is not in the usercache, it is requested from Mojang.
+     *
+     * @param file The file, named after the UUID of the user.
+     * @return The user.
      */
-    private void loadUsers() {
-        try (Stream<Path> stream = Files.list(this.path)) {
-            stream.forEach(x -> {
-                UUID uuid = UUID.fromString(x.getFileName().toString().replace(".yml", ""));
-                YamlConfiguration config = YamlConfiguration.loadConfiguration(x.toFile());
-                String username = this.cache.get(uuid);
-                if (username != null) {
-                    this.users.add(new User(uuid, username, config.getInt("Credits", 0), config.getInt("Credits_Spent", 0)));
-                    return;
-                }
-                CompletableFuture<String> future = this.handleName(uuid, this.requestTime, this.failureTime);
-                this.users.add(new User(uuid, future.join(), config.getInt("Credits", 0), config.getInt("Credits_Spent", 0)));
-            });
-        } catch (IOException e) {
-            e.printStackTrace();
+    private User loadUser(final Path file) {
+        UUID uuid = UUID.fromString(file.getFileName().toString().replace(".yml", ""));
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(file.toFile());
+        String username = this.cache.get(uuid);
+        if (username == null) {
+            username = this.handleName(uuid, this.requestTime, this.failureTime).join();
         }
+        return new User(uuid, username, config.getInt("Credits", 0), config.getInt("Credits_Spent", 0));
     }
 
     /**
@@ -24,43 +24,72 @@
 package games.cultivate.mcmmocredits.database;
 
 import games.cultivate.mcmmocredits.user.User;
+import org.jdbi.v3.core.Handle;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.core.async.JdbiExecutor;
 import org.jdbi.v3.core.mapper.RowMapper;
+import org.jdbi.v3.core.result.ResultIterator;
 import org.jdbi.v3.core.statement.PreparedBatch;
+import org.jdbi.v3.core.statement.Query;
 import org.jdbi.v3.core.statement.StatementContext;
+import org.jetbrains.annotations.Nullable;
 
 import javax.sql.DataSource;
 import java.io.Closeable;
 import java.io.IOException;
+import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
 
 /**
  * Represents a database.
  */
 public abstract class AbstractDatabase {
+    private static final int CHUNK_SIZE = 1000;
+    private static final int IN_CHUNK_SIZE = 500;
     final Jdbi jdbi;
     final DataSource source;
     final JdbiExecutor executor;
+    final JdbiExecutor writer;
+    final DatabaseExecutor threads;
+    final DatabaseExecutor writeThreads;
+    final WriteBehindQueue queue;
+    final UUIDCodec uuids = new UUIDCodec();
+    final boolean binaryUuids;
+    private final Object queueLock = new Object();
 
     /**
      * Constructs the object.
      *
-     * @param source The DataSource to wrap.
+     * @param source  The DataSource to wrap.
+     * @param options Options used to tune the database.
      */
-    AbstractDatabase(final DataSource source) {
+    AbstractDatabase(final DataSource source, final DatabaseOptions options) {
         this.source = source;
         this.jdbi = this.createJdbi();
-        this.executor = JdbiExecutor.create(this.jdbi, Executors.newFixedThreadPool(2));
-        this.createTable();
+        this.threads = DatabaseExecutor.create(options.virtualThreads(), Math.max(1, options.poolSize()), "MCMMOCredits Database");
+        this.executor = JdbiExecutor.create(this.jdbi, this.threads);
+        this.writeThreads = this.createWriteThreads(options);
+        this.writer = this.writeThreads == this.threads ? this.executor : JdbiExecutor.create(this.jdbi, this.writeThreads);
+        this.binaryUuids = options.binaryUuids();
+        this.migrate();
+        this.queue = options.writeBehind() ? new WriteBehindQueue(this.writer, options.flushInterval(), options.flushThreshold()) : null;
     }
 
     /**
@@ -71,9 +100,27 @@ public abstract class AbstractDatabase {
     abstract Jdbi createJdbi();
 
     /**
-     * Shuts down the underlying data source.
+     * Creates the executor used for queries which write to the database.
+     * By default, writes share the executor used for reads.
+     *
+     * @param options Options used to tune the database.
+     * @return The executor.
+     */
+    DatabaseExecutor createWriteThreads(final DatabaseOptions options) {
+        return this.threads;
+    }
+
+    /**
+     * Flushes queued updates and shuts down the underlying data source.
      */
     public void disable() {
+        if (this.queue != null) {
+            this.queue.close();
+        }
+        if (this.writeThreads != this.threads) {
+            this.writeThreads.shutdown();
+        }
+        this.threads.shutdown();
         if (this.source instanceof Closeable closeable) {
             try {
                 closeable.close();
@@ -84,10 +131,238 @@ public abstract class AbstractDatabase {
     }
 
     /**
-     * Creates the Database's table based on properties.
+     * Creates the Database's table and applies any pending schema migrations.
+     * An interrupted UUID conversion is resumed first, and the UUID column is converted if it does not use the configured layout.
+     * Migrations run on the write executor like every other write, and this method waits for them to finish.
+     */
+    public void migrate() {
+        this.writer.useHandle(handle -> {
+            this.resumeConversion(handle);
+            if (hasTable(handle, "MCMMOCredits")) {
+                this.uuids.binary(this.storesBinary(handle));
+            }
+            Migration.migrate(handle, this.migrations());
+            this.uuids.binary(this.storesBinary(handle));
+            if (this.uuids.binary() != this.binaryUuids) {
+                new Migration(0, this.binaryUuids ? "Store UUIDs as bytes" : "Store UUIDs as text", h -> this.convertUuids(h, this.binaryUuids)).apply(handle);
+            }
+        }).toCompletableFuture().join();
+    }
+
+    /**
+     * Creates the Database's table and applies any pending schema migrations.
+     *
+     * @deprecated Replaced by {@link #migrate()}, which also upgrades existing tables.
      */
+    @Deprecated
     public void createTable() {
-        this.jdbi.useHandle(handle -> handle.execute("CREATE TABLE IF NOT EXISTS MCMMOCredits(id INTEGER PRIMARY KEY AUTO_INCREMENT,UUID VARCHAR(36) NOT NULL,username VARCHAR(16) NOT NULL,credits INT CHECK(credits >= 0),redeemed INT);"));
+        this.migrate();
+    }
+
+    /**
+     * Gets the ordered schema migrations of the database.
+     * Migrations must never be edited once released, new changes are appended as a new version.
+     *
+     * @return The list of migrations.
+     */
+    List<Migration> migrations() {
+        return List.of(
+                Migration.of(1, "Create table", this.createTable("MCMMOCredits", false)),
+                new Migration(2, "Add indexes", handle -> {
+                    this.mergeDuplicates(handle);
+                    this.createIndexes(handle, "MCMMOCredits");
+                })
+        );
+    }
+
+    /**
+     * Merges rows which share a UUID into the oldest row, so that a unique index can be created.
+     * The merged row keeps the highest credits and redeemed of the duplicates, and every removed row is logged.
+     *
+     * @param handle The handle.
+     */
+    void mergeDuplicates(final Handle handle) {
+        Map<UUID, List<Row>> duplicates = new LinkedHashMap<>();
+        handle.createQuery("SELECT * FROM MCMMOCredits WHERE UUID IN (SELECT UUID FROM MCMMOCredits GROUP BY UUID HAVING COUNT(*) > 1) ORDER BY id;")
+                .map(this::mapRow).forEach(x -> duplicates.computeIfAbsent(x.user().uuid(), k -> new ArrayList<>()).add(x));
+        Logger logger = Logger.getLogger("Minecraft");
+        duplicates.forEach((uuid, rows) -> {
+            Row kept = rows.get(0);
+            int credits = rows.stream().mapToInt(x -> x.user().credits()).max().orElse(0);
+            int redeemed = rows.stream().mapToInt(x -> x.user().redeemed()).max().orElse(0);
+            for (Row row : rows.subList(1, rows.size())) {
+                User user = row.user();
+                logger.warning(String.format("Removing duplicate row %d for %s (%s): credits=%d, redeemed=%d. Merged into row %d.", row.id(), uuid, user.username(), user.credits(), user.redeemed(), kept.id()));
+                handle.createUpdate("DELETE FROM MCMMOCredits WHERE id = :id;").bind("id", row.id()).execute();
+            }
+            handle.createUpdate("UPDATE MCMMOCredits SET credits = :credits, redeemed = :redeemed WHERE id = :id;").bind("credits", credits).bind("redeemed", redeemed).bind("id", kept.id()).execute();
+        });
+    }
+
+    /**
+     * Gets the statement which creates a table with the user schema.
+     *
+     * @param table  Name of the table.
+     * @param binary If UUIDs are stored as bytes instead of text.
+     * @return The statement.
+     */
+    String createTable(final String table, final boolean binary) {
+        return "CREATE TABLE IF NOT EXISTS %s(id INTEGER PRIMARY KEY AUTO_INCREMENT,UUID %s NOT NULL,username VARCHAR(16) NOT NULL,credits INT CHECK(credits >= 0),redeemed INT);".formatted(table, binary ? "BINARY(16)" : "VARCHAR(36)");
+    }
+
+    /**
+     * Gets the statements which create the indexes of a table with the user schema, keyed by the name of the index.
+     *
+     * @param table Name of the table.
+     * @return Map of index names and statements.
+     */
+    Map<String, String> indexes(final String table) {
+        return Map.of(
+                "mcmmocredits_uuid", "CREATE UNIQUE INDEX mcmmocredits_uuid ON %s(UUID);".formatted(table),
+                "mcmmocredits_username", "CREATE INDEX mcmmocredits_username ON %s(username);".formatted(table),
+                "mcmmocredits_credits", "CREATE INDEX mcmmocredits_credits ON %s(credits DESC, id);".formatted(table));
+    }
+
+    /**
+     * Creates the indexes of a table which do not exist yet.
+     * Existing indexes are skipped, so this can run again after a partial failure.
+     *
+     * @param handle The handle.
+     * @param table  Name of the table.
+     */
+    void createIndexes(final Handle handle, final String table) {
+        this.indexes(table).forEach((k, v) -> {
+            if (!hasIndex(handle, table, k)) {
+                handle.execute(v);
+            }
+        });
+    }
+
+    /**
+     * Gets if a table exists, using the metadata of the connection.
+     *
+     * @param handle The handle.
+     * @param table  Name of the table.
+     * @return True if the table exists, otherwise false.
+     */
+    static boolean hasTable(final Handle handle, final String table) {
+        return metadata(handle, table, (meta, catalog, name) -> meta.getTables(catalog, null, name, null), "TABLE_NAME", table);
+    }
+
+    /**
+     * Gets if a table has an index with the specified name, using the metadata of the connection.
+     *
+     * @param handle The handle.
+     * @param table  Name of the table.
+     * @param index  Name of the index.
+     * @return True if the index exists, otherwise false.
+     */
+    static boolean hasIndex(final Handle handle, final String table, final String index) {
+        return metadata(handle, table, (meta, catalog, name) -> meta.getIndexInfo(catalog, null, name, false, true), "INDEX_NAME", index);
+    }
+
+    /**
+     * Searches the metadata of the connection for a value.
+     * Names are compared ignoring case, since databases differ in how they store unquoted names.
+     *
+     * @param handle The handle.
+     * @param table  Name of the table to search.
+     * @param lookup Function which reads the metadata of the table.
+     * @param column The column of the metadata to compare.
+     * @param value  The value to find.
+     * @return True if the value was found, otherwise false.
+     */
+    private static boolean metadata(final Handle handle, final String table, final MetadataLookup lookup, final String column, final String value) {
+        try {
+            DatabaseMetaData meta = handle.getConnection().getMetaData();
+            String catalog = handle.getConnection().getCatalog();
+            for (String name : Set.of(table, table.toUpperCase(Locale.ROOT), table.toLowerCase(Locale.ROOT))) {
+                try (ResultSet rs = lookup.apply(meta, catalog, name)) {
+                    while (rs.next()) {
+                        if (value.equalsIgnoreCase(rs.getString(column))) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to read database metadata!", e);
+        }
+    }
+
+    /**
+     * Gets if the UUID column of the user table stores bytes.
+     *
+     * @param handle The handle.
+     * @return True if UUIDs are stored as bytes, otherwise false.
+     */
+    boolean storesBinary(final Handle handle) {
+        return handle.createQuery("SELECT UUID FROM MCMMOCredits WHERE 1 = 0;").scanResultSet((rs, ctx) -> switch (rs.get().getMetaData().getColumnType(1)) {
+            case Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY, Types.BLOB -> true;
+            default -> false;
+        });
+    }
+
+    /**
+     * Resumes a UUID conversion which was interrupted.
+     * If both tables exist, the copy was interrupted, so the old table is intact and the partial copy is dropped.
+     * If only the new table exists, the old table was dropped after the copy completed, so the new table replaces it.
+     *
+     * @param handle The handle.
+     */
+    void resumeConversion(final Handle handle) {
+        if (!hasTable(handle, "MCMMOCredits_new")) {
+            return;
+        }
+        if (hasTable(handle, "MCMMOCredits")) {
+            handle.execute("DROP TABLE MCMMOCredits_new;");
+            return;
+        }
+        Logger.getLogger("Minecraft").warning("Resuming an interrupted UUID conversion ...");
+        this.replaceTable(handle);
+    }
+
+    /**
+     * Converts the UUID column to the requested storage layout.
+     * Rows are copied in chunks to a new table, which replaces the old table once complete.
+     * Every step can be resumed by {@link #resumeConversion(Handle)} if the conversion is interrupted.
+     *
+     * @param handle The handle.
+     * @param binary If UUIDs should be stored as bytes instead of text.
+     */
+    void convertUuids(final Handle handle, final boolean binary) {
+        handle.execute("DROP TABLE IF EXISTS MCMMOCredits_new;");
+        handle.execute(this.createTable("MCMMOCredits_new", binary));
+        List<Row> rows;
+        int last = 0;
+        do {
+            rows = handle.createQuery("SELECT * FROM MCMMOCredits WHERE id > :id ORDER BY id LIMIT :limit;").bind("id", last).bind("limit", CHUNK_SIZE).map(this::mapRow).list();
+            PreparedBatch batch = handle.prepareBatch("INSERT INTO MCMMOCredits_new(id, UUID, username, credits, redeemed) VALUES(:id,:uuid,:username,:credits,:redeemed);");
+            for (Row row : rows) {
+                User user = row.user();
+                Object uuid = binary ? UUIDCodec.toBytes(user.uuid()) : user.uuid().toString();
+                batch.bind("id", row.id()).bind("uuid", uuid).bind("username", user.username()).bind("credits", user.credits()).bind("redeemed", user.redeemed()).add();
+                last = row.id();
+            }
+            if (!rows.isEmpty()) {
+                batch.execute();
+            }
+        } while (rows.size() == CHUNK_SIZE);
+        handle.execute("DROP TABLE MCMMOCredits;");
+        this.replaceTable(handle);
+        this.uuids.binary(binary);
+    }
+
+    /**
+     * Replaces the dropped user table with the completed copy, indexing the copy before it is renamed.
+     *
+     * @param handle The handle.
+     */
+    private void replaceTable(final Handle handle) {
+        this.createIndexes(handle, "MCMMOCredits_new");
+        handle.execute("ALTER TABLE MCMMOCredits_new RENAME TO MCMMOCredits;");
+        this.uuids.binary(this.storesBinary(handle));
     }
 
     /**
@@ -97,7 +372,7 @@ public abstract class AbstractDatabase {
      * @return True if the transaction was successful, otherwise false.
      */
     public CompletableFuture<Boolean> addUser(final User user) {
-        return this.executor.withHandle(handle -> handle.createUpdate("INSERT INTO MCMMOCredits(uuid, username, credits, redeemed) VALUES(:uuid,:username,:credits,:redeemed);").bindMethods(user).execute() == 1).toCompletableFuture();
+        return this.writer.withHandle(handle -> handle.createUpdate("INSERT INTO MCMMOCredits(uuid, username, credits, redeemed) VALUES(:uuid,:username,:credits,:redeemed);").bindMethods(user).execute() == 1).toCompletableFuture();
     }
 
     /**
@@ -107,13 +382,98 @@ public abstract class AbstractDatabase {
      * @return CompletableFuture holding status of the task.
      */
     public CompletableFuture<Void> addUsers(final Collection<User> users) {
-        return this.executor.useHandle(handle -> {
+        return this.writer.useHandle(handle -> {
             PreparedBatch batch = handle.prepareBatch("INSERT INTO MCMMOCredits(uuid, username, credits, redeemed) VALUES(:uuid,:username,:credits,:redeemed);");
             users.forEach(x -> batch.bindMethods(x).add());
             batch.execute();
         }).toCompletableFuture();
     }
 
+    /**
+     * Adds users to the database, in batches of a fixed size.
+     * Users are only read from the iterator as they are written, so the source does not need to fit in memory.
+     *
+     * @param users Iterator of the users to add.
+     * @return CompletableFuture holding the amount of users added.
+     */
+    public CompletableFuture<Integer> addUsers(final Iterator<User> users) {
+        return this.writer.withHandle(handle -> {
+            int count = 0;
+            while (users.hasNext()) {
+                PreparedBatch batch = handle.prepareBatch("INSERT INTO MCMMOCredits(uuid, username, credits, redeemed) VALUES(:uuid,:username,:credits,:redeemed);");
+                for (int i = 0; i < CHUNK_SIZE && users.hasNext(); i++) {
+                    batch.bindMethods(users.next()).add();
+                    count++;
+                }
+                batch.execute();
+            }
+            return count;
+        }).toCompletableFuture();
+    }
+
+    /**
+     * Stores a user when they log in, adding the user if it does not exist or updating the username if it changed.
+     * If the username is unchanged, the user is only read and nothing is written.
+     * Otherwise, one upsert is written, and one read returns both the stored user and any other user with the same username.
+     *
+     * @param uuid     The UUID of the user.
+     * @param username The current username of the user.
+     * @return The result of the login.
+     */
+    public CompletableFuture<LoginResult> login(final UUID uuid, final String username) {
+        return this.executor.withHandle(handle -> this.loginRows(handle, uuid, username)).thenCompose(x -> {
+            if (x.user() != null && x.user().username().equals(username)) {
+                return CompletableFuture.completedFuture(new LoginResult(this.overlay(x.user()), false, null));
+            }
+            return this.writer.withHandle(handle -> handle.inTransaction(h -> {
+                h.createUpdate(this.upsertUser()).bind("uuid", uuid).bind("username", username).execute();
+                LoginRows rows = this.loginRows(h, uuid, username);
+                return new LoginResult(this.overlay(rows.user()), x.user() == null, rows.conflict());
+            }));
+        }).toCompletableFuture();
+    }
+
+    /**
+     * Reads the user with the specified UUID, and another user with the specified username, in one query.
+     *
+     * @param handle   The handle.
+     * @param uuid     The UUID of the user.
+     * @param username The username of the user.
+     * @return The rows which were found.
+     */
+    private LoginRows loginRows(final Handle handle, final UUID uuid, final String username) {
+        User user = null;
+        User conflict = null;
+        String sql = "SELECT * FROM MCMMOCredits WHERE UUID = :uuid OR %s;".formatted(this.matchUsername());
+        for (User row : handle.createQuery(sql).bind("uuid", uuid).bind("username", username).mapTo(User.class)) {
+            if (row.uuid().equals(uuid)) {
+                user = row;
+            } else if (conflict == null) {
+                conflict = row;
+            }
+        }
+        return new LoginRows(user, conflict);
+    }
+
+    /**
+     * Gets the condition which matches the username parameter, ignoring case.
+     * Usernames are compared with equality, as LIKE treats underscores in usernames as wildcards.
+     *
+     * @return The condition.
+     */
+    String matchUsername() {
+        return "username = :username";
+    }
+
+    /**
+     * Gets the statement which adds a user, or updates the username of the user if the UUID already exists.
+     *
+     * @return The statement.
+     */
+    String upsertUser() {
+        return "INSERT INTO MCMMOCredits(UUID, username, credits, redeemed) VALUES(:uuid,:username,0,0) ON DUPLICATE KEY UPDATE username = VALUES(username);";
+    }
+
     /**
      * Gets a user with the specified UUID.
      * The optional is empty if the database does not contain the UUID.
@@ -122,7 +482,29 @@ public abstract class AbstractDatabase {
      * @return A user if it exists, otherwise an empty optional.
      */
     public CompletableFuture<Optional<User>> getUser(final UUID uuid) {
-        return this.executor.withHandle(handle -> handle.createQuery("SELECT * FROM MCMMOCredits WHERE uuid = :uuid;").bind("uuid", uuid).mapTo(User.class).findOne()).toCompletableFuture();
+        return this.executor.withHandle(handle -> handle.createQuery("SELECT * FROM MCMMOCredits WHERE uuid = :uuid;").bind("uuid", uuid).mapTo(User.class).findOne().map(this::overlay)).toCompletableFuture();
+    }
+
+    /**
+     * Gets all users with the specified UUIDs, using one query per chunk of UUIDs.
+     * UUIDs which do not belong to a user are ignored.
+     *
+     * @param uuids The UUIDs of the users.
+     * @return A list of the users which exist, in no particular order.
+     */
+    public CompletableFuture<List<User>> getUsers(final Collection<UUID> uuids) {
+        if (uuids.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        List<UUID> list = List.copyOf(uuids);
+        return this.executor.withHandle(handle -> {
+            List<User> users = new ArrayList<>(list.size());
+            for (int i = 0; i < list.size(); i += IN_CHUNK_SIZE) {
+                List<UUID> chunk = list.subList(i, Math.min(i + IN_CHUNK_SIZE, list.size()));
+                handle.createQuery("SELECT * FROM MCMMOCredits WHERE UUID IN (<uuids>);").bindList("uuids", chunk).mapTo(User.class).forEach(x -> users.add(this.overlay(x)));
+            }
+            return users;
+        }).toCompletableFuture();
     }
 
     /**
@@ -133,7 +515,7 @@ public abstract class AbstractDatabase {
      * @return A user if it exists, otherwise an empty optional.
      */
     public CompletableFuture<Optional<User>> getUser(final String username) {
-        return this.executor.withHandle(handle -> handle.createQuery("SELECT * FROM MCMMOCredits WHERE username LIKE :username LIMIT 1;").bind("username", username).mapTo(User.class).findOne()).toCompletableFuture();
+        return this.executor.withHandle(handle -> handle.createQuery("SELECT * FROM MCMMOCredits WHERE %s LIMIT 1;".formatted(this.matchUsername())).bind("username", username).mapTo(User.class).findOne().map(this::overlay)).toCompletableFuture();
     }
 
     /**
@@ -144,11 +526,59 @@ public abstract class AbstractDatabase {
      * @return A list of users within the provided bounds.
      */
     public CompletableFuture<List<User>> rangeOfUsers(final int limit, final int offset) {
-        return this.executor.withHandle(handle -> handle.createQuery("SELECT * FROM MCMMOCredits INNER JOIN (SELECT id FROM MCMMOCredits ORDER BY credits DESC LIMIT :limit OFFSET :offset) AS tmp USING(id) ORDER BY credits DESC;").bind("limit", limit).bind("offset", offset).mapTo(User.class).list()).toCompletableFuture();
+        return this.executor.withHandle(handle -> handle.createQuery("SELECT * FROM MCMMOCredits INNER JOIN (SELECT id FROM MCMMOCredits ORDER BY credits DESC, id LIMIT :limit OFFSET :offset) AS tmp USING(id) ORDER BY credits DESC, id;").bind("limit", limit).bind("offset", offset).mapTo(User.class).list()).toCompletableFuture();
     }
 
     /**
-     * Gets all users.
+     * Gets a page of the leaderboard, ordered by credits and then by id.
+     * If a cursor is provided, the page is found by seeking past the cursor, which costs the same for any page.
+     * Otherwise, users are skipped using only the credits index, and full rows are read for the page alone.
+     *
+     * @param limit  The max amount of users to get.
+     * @param offset The amount of users ranked above the page. Used to skip users if the cursor is null.
+     * @param cursor Cursor of the previous page, or null to use the offset.
+     * @return The page.
+     */
+    public CompletableFuture<LeaderboardPage> pageOfUsers(final int limit, final int offset, final @Nullable LeaderboardPage.Cursor cursor) {
+        if (limit < 1) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Page size must be positive!"));
+        }
+        return this.executor.withHandle(handle -> {
+            Query query = cursor == null
+                    ? handle.createQuery("SELECT * FROM MCMMOCredits INNER JOIN (SELECT id FROM MCMMOCredits ORDER BY credits DESC, id LIMIT :limit OFFSET :offset) AS tmp USING(id) ORDER BY credits DESC, id;").bind("offset", offset)
+                    : handle.createQuery("SELECT * FROM MCMMOCredits WHERE credits < :credits OR (credits = :credits AND id > :id) ORDER BY credits DESC, id LIMIT :limit;").bindMethods(cursor);
+            return this.toPage(query.bind("limit", limit).map(this::mapRow).list(), offset + 1);
+        }).toCompletableFuture();
+    }
+
+    /**
+     * Gets the page of the leaderboard which contains the user with the specified UUID.
+     *
+     * @param uuid  The UUID of the user.
+     * @param limit The max amount of users on a page.
+     * @return The page, or an empty page if the user does not exist.
+     */
+    public CompletableFuture<LeaderboardPage> pageOfUser(final UUID uuid, final int limit) {
+        if (limit < 1) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Page size must be positive!"));
+        }
+        return this.executor.withHandle(handle -> {
+            Optional<Row> row = handle.createQuery("SELECT * FROM MCMMOCredits WHERE UUID = :uuid;").bind("uuid", uuid).map(this::mapRow).findOne();
+            if (row.isEmpty()) {
+                return LeaderboardPage.empty();
+            }
+            LeaderboardPage.Cursor at = row.get().cursor();
+            int position = handle.createQuery("SELECT COUNT(*) FROM MCMMOCredits WHERE credits > :credits OR (credits = :credits AND id < :id);").bindMethods(at).mapTo(int.class).one();
+            int before = position % limit;
+            List<Row> rows = new ArrayList<>(handle.createQuery("SELECT * FROM MCMMOCredits WHERE credits > :credits OR (credits = :credits AND id < :id) ORDER BY credits, id DESC LIMIT :limit;").bindMethods(at).bind("limit", before).map(this::mapRow).list());
+            Collections.reverse(rows);
+            rows.addAll(handle.createQuery("SELECT * FROM MCMMOCredits WHERE credits < :credits OR (credits = :credits AND id >= :id) ORDER BY credits DESC, id LIMIT :limit;").bindMethods(at).bind("limit", limit - before).map(this::mapRow).list());
+            return this.toPage(rows, position - before + 1);
+        }).toCompletableFuture();
+    }
+
+    /**
+     * Gets all users. This loads the whole table into memory, prefer {@link #forEachUser(Consumer)} for large tables.
      *
      * @return a list of all users.
      */
@@ -156,6 +586,41 @@ public abstract class AbstractDatabase {
         return this.executor.withHandle(handle -> handle.createQuery("SELECT * FROM MCMMOCredits").mapTo(User.class).list()).toCompletableFuture();
     }
 
+    /**
+     * Reads all users in chunks of a fixed size, using a cursor so that only one chunk is held in memory.
+     * Users are read in the order of their id, which the in-memory leaderboard uses to break ties.
+     * The consumer is called on a database thread, and the chunk passed to it is not reused.
+     *
+     * @param consumer Consumer of each chunk of users.
+     * @return CompletableFuture holding status of the task.
+     */
+    public CompletableFuture<Void> forEachUser(final Consumer<List<User>> consumer) {
+        return this.executor.useHandle(handle -> {
+            try (ResultIterator<User> users = handle.createQuery("SELECT * FROM MCMMOCredits ORDER BY id;").setFetchSize(CHUNK_SIZE).mapTo(User.class).iterator()) {
+                List<User> chunk = new ArrayList<>(CHUNK_SIZE);
+                while (users.hasNext()) {
+                    chunk.add(users.next());
+                    if (chunk.size() == CHUNK_SIZE) {
+                        consumer.accept(chunk);
+                        chunk = new ArrayList<>(CHUNK_SIZE);
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    consumer.accept(chunk);
+                }
+            }
+        }).toCompletableFuture();
+    }
+
+    /**
+     * Counts all users.
+     *
+     * @return The amount of users in the database.
+     */
+    public CompletableFuture<Integer> countUsers() {
+        return this.executor.withHandle(handle -> handle.createQuery("SELECT COUNT(*) FROM MCMMOCredits;").mapTo(int.class).one()).toCompletableFuture();
+    }
+
     /**
      * Updates the username of a user with the specified UUID.
      *
@@ -164,28 +629,149 @@ public abstract class AbstractDatabase {
      * @return True if the transaction was successful, otherwise false.
      */
     public CompletableFuture<Boolean> setUsername(final UUID uuid, final String username) {
-        return this.executor.withHandle(handle -> handle.createUpdate("UPDATE MCMMOCredits SET username = :username WHERE UUID = :uuid;").bind("uuid", uuid).bind("username", username).execute() == 1).toCompletableFuture();
+        return this.updateUsername(uuid, username).thenApply(Optional::isPresent);
+    }
+
+    /**
+     * Updates the username of a user with the specified UUID, and reads back the row which was written.
+     * The future completes after the write commits. Callers which cache the row must order writes to the same user themselves.
+     *
+     * @param uuid     The UUID of a user.
+     * @param username The username of a user.
+     * @return The written row if the transaction was successful, otherwise an empty optional.
+     */
+    public CompletableFuture<Optional<User>> updateUsername(final UUID uuid, final String username) {
+        return this.writer.withHandle(handle -> handle.inTransaction(h -> {
+            if (h.createUpdate("UPDATE MCMMOCredits SET username = :username WHERE UUID = :uuid;").bind("uuid", uuid).bind("username", username).execute() != 1) {
+                return Optional.<User>empty();
+            }
+            return Optional.of(this.written(h, uuid));
+        })).toCompletableFuture();
     }
 
     /**
      * Sets the credit balance of a user with the specified UUID.
+     * When write-behind is enabled, the update is queued once the user is known to exist.
      *
      * @param uuid   The UUID of the user.
      * @param amount The new amount of credits.
      * @return True if the transaction was successful, otherwise false.
      */
     public CompletableFuture<Boolean> setCredits(final UUID uuid, final int amount) {
-        return this.executor.withHandle(handle -> handle.createUpdate("UPDATE MCMMOCredits SET credits = :amount WHERE UUID = :uuid;").bind("uuid", uuid).bind("amount", amount).execute() == 1).toCompletableFuture();
+        return this.updateCredits(uuid, amount).thenApply(Optional::isPresent);
+    }
+
+    /**
+     * Sets the credit balance of a user with the specified UUID, and reads back the row which was written.
+     * The future completes after the write commits. Callers which cache the row must order writes to the same user themselves.
+     * When write-behind is enabled, the update is queued once the user is known to exist, and the row includes all queued updates.
+     *
+     * @param uuid   The UUID of the user.
+     * @param amount The new amount of credits.
+     * @return The written row if the transaction was successful, otherwise an empty optional.
+     */
+    public CompletableFuture<Optional<User>> updateCredits(final UUID uuid, final int amount) {
+        if (this.queue != null) {
+            if (amount < 0) {
+                return CompletableFuture.failedFuture(new IllegalArgumentException("Credit balance cannot be negative!"));
+            }
+            return this.executor.withHandle(handle -> handle.createQuery("SELECT * FROM MCMMOCredits WHERE UUID = :uuid;").bind("uuid", uuid).mapTo(User.class).findOne().map(x -> {
+                synchronized (this.queueLock) {
+                    this.queue.add(uuid, amount);
+                    return this.overlay(x);
+                }
+            })).toCompletableFuture();
+        }
+        return this.writer.withHandle(handle -> handle.inTransaction(h -> {
+            if (h.createUpdate("UPDATE MCMMOCredits SET credits = :amount WHERE UUID = :uuid;").bind("uuid", uuid).bind("amount", amount).execute() != 1) {
+                return Optional.<User>empty();
+            }
+            return Optional.of(this.written(h, uuid));
+        })).toCompletableFuture();
+    }
+
+    /**
+     * Reads a row which was just written in the current transaction.
+     *
+     * @param handle The handle of the transaction.
+     * @param uuid   The UUID of the user.
+     * @return The written row.
+     */
+    private User written(final Handle handle, final UUID uuid) {
+        return this.overlay(handle.createQuery("SELECT * FROM MCMMOCredits WHERE UUID = :uuid;").bind("uuid", uuid).mapTo(User.class).one());
+    }
+
+    /**
+     * Atomically adds an amount of credits to the balance of a user with the specified UUID.
+     * The update is rejected if the balance would become negative.
+     *
+     * @param uuid   The UUID of the user.
+     * @param amount The amount of credits to add. Negative amounts take credits.
+     * @return The updated user if the transaction was successful, otherwise an empty optional.
+     */
+    public CompletableFuture<Optional<User>> addCredits(final UUID uuid, final int amount) {
+        return this.applyDeltas(Map.of(uuid, amount)).thenApply(x -> x.stream().findFirst());
+    }
+
+    /**
+     * Atomically applies relative changes to the credit balances of users within one transaction.
+     * Nothing is applied if any balance would become negative, or if any user does not exist.
+     *
+     * @param deltas Map of UUIDs and the amount of credits to add to their balance.
+     * @return The updated users if the transaction was successful, otherwise an empty list.
+     */
+    public CompletableFuture<List<User>> applyDeltas(final Map<UUID, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        return this.writer.withHandle(handle -> this.flush(handle, deltas.keySet()).inTransaction(h -> {
+            for (Map.Entry<UUID, Integer> entry : deltas.entrySet()) {
+                int count = h.createUpdate("UPDATE MCMMOCredits SET credits = credits + :delta WHERE UUID = :uuid AND credits + :delta >= 0;").bind("uuid", entry.getKey()).bind("delta", entry.getValue()).execute();
+                if (count != 1) {
+                    h.rollback();
+                    return List.<User>of();
+                }
+            }
+            return h.createQuery("SELECT * FROM MCMMOCredits WHERE UUID IN (<uuids>);").bindList("uuids", List.copyOf(deltas.keySet())).mapTo(User.class).list();
+        })).toCompletableFuture();
+    }
+
+    /**
+     * Atomically adds the same amount of credits to the credit balances of users with a single statement.
+     * Nothing is applied if any balance would become negative, or if any user does not exist.
+     *
+     * @param uuids UUIDs of the users, without duplicates.
+     * @param delta The amount of credits to add to each balance.
+     * @return The updated users if the update was successful, otherwise an empty list.
+     */
+    public CompletableFuture<List<User>> applyDelta(final Collection<UUID> uuids, final int delta) {
+        if (uuids.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        List<UUID> list = List.copyOf(uuids);
+        return this.writer.withHandle(handle -> this.flush(handle, list).inTransaction(h -> {
+            int count = h.createUpdate("UPDATE MCMMOCredits SET credits = credits + :delta WHERE UUID IN (<uuids>) AND credits + :delta >= 0;").bindList("uuids", list).bind("delta", delta).execute();
+            if (count != list.size()) {
+                h.rollback();
+                return List.<User>of();
+            }
+            return h.createQuery("SELECT * FROM MCMMOCredits WHERE UUID IN (<uuids>);").bindList("uuids", list).mapTo(User.class).list();
+        })).toCompletableFuture();
     }
 
     /**
      * Updates credits and redeemed for the provided list of users.
+     * When write-behind is enabled, the updates are queued and the future completes immediately.
      *
      * @param users The users.
      * @return Returns if update count of each statement in the batch is equal to 1.
      */
     public CompletableFuture<Boolean> applyTransaction(final List<User> users) {
-        return this.executor.withHandle(handle -> {
+        if (this.queue != null) {
+            users.forEach(this.queue::add);
+            return CompletableFuture.completedFuture(true);
+        }
+        return this.writer.withHandle(handle -> {
             PreparedBatch batch = handle.prepareBatch("UPDATE MCMMOCredits SET credits = :credits, redeemed = :redeemed WHERE UUID = :uuid;");
             users.forEach(x -> batch.bindMethods(x).add());
             int[] results = batch.execute();
@@ -200,7 +786,75 @@ public abstract class AbstractDatabase {
      * @return True if the transaction was successful, otherwise false.
      */
     public CompletableFuture<Boolean> updateUser(final User user) {
-        return this.executor.withHandle(handle -> handle.createUpdate("UPDATE MCMMOCredits SET username = :username, credits = :credits, redeemed = :redeemed WHERE UUID = :uuid;").bindMethods(user).execute() == 1).toCompletableFuture();
+        return this.writer.withHandle(handle -> this.flush(handle, List.of(user.uuid())).createUpdate("UPDATE MCMMOCredits SET username = :username, credits = :credits, redeemed = :redeemed WHERE UUID = :uuid;").bindMethods(user).execute() == 1).toCompletableFuture();
+    }
+
+    /**
+     * Gets the executor which runs database tasks.
+     *
+     * @return The executor.
+     */
+    public DatabaseExecutor threads() {
+        return this.threads;
+    }
+
+    /**
+     * Gets the write-behind queue, which is only present if enabled.
+     *
+     * @return The queue if present, otherwise an empty optional.
+     */
+    public Optional<WriteBehindQueue> writeQueue() {
+        return Optional.ofNullable(this.queue);
+    }
+
+    /**
+     * Writes queued updates of the specified users before they are modified directly.
+     *
+     * @param handle The handle used for the modification.
+     * @param uuids  The UUIDs of the users.
+     * @return The provided handle.
+     */
+    Handle flush(final Handle handle, final Collection<UUID> uuids) {
+        if (this.queue != null) {
+            this.queue.flush(handle, uuids);
+        }
+        return handle;
+    }
+
+    /**
+     * Applies queued updates to a user read from the database.
+     *
+     * @param user The user.
+     * @return The user with queued updates applied.
+     */
+    User overlay(final User user) {
+        return this.queue == null ? user : this.queue.overlay(user);
+    }
+
+    /**
+     * Maps a row to a user and its row id.
+     *
+     * @param rs  The ResultSet.
+     * @param ctx The StatementContext.
+     * @return The row.
+     * @throws SQLException Thrown if the row cannot be read.
+     */
+    private Row mapRow(final ResultSet rs, final StatementContext ctx) throws SQLException {
+        return new Row(rs.getInt("id"), ctx.findRowMapperFor(User.class).orElseThrow().map(rs, ctx));
+    }
+
+    /**
+     * Creates a leaderboard page from rows.
+     *
+     * @param rows The rows, ordered by rank.
+     * @param rank The rank of the first row.
+     * @return The page.
+     */
+    private LeaderboardPage toPage(final List<Row> rows, final int rank) {
+        if (rows.isEmpty()) {
+            return LeaderboardPage.empty();
+        }
+        return new LeaderboardPage(rows.stream().map(Row::user).toList(), rank, rows.get(rows.size() - 1).cursor());
     }
 
     /**
@@ -221,13 +875,65 @@ public abstract class AbstractDatabase {
         return false;
     }
 
+    /**
+     * Reads metadata of a table.
+     */
+    @FunctionalInterface
+    private interface MetadataLookup {
+        /**
+         * Reads metadata of a table.
+         *
+         * @param meta    The metadata of the connection.
+         * @param catalog The catalog of the connection.
+         * @param table   Name of the table.
+         * @return The metadata.
+         * @throws SQLException Thrown if the metadata cannot be read.
+         */
+        ResultSet apply(DatabaseMetaData meta, String catalog, String table) throws SQLException;
+    }
+
+    /**
+     * Represents a user and its row id.
+     *
+     * @param id   The row id.
+     * @param user The user.
+     */
+    private record Row(int id, User user) {
+        LeaderboardPage.Cursor cursor() {
+            return new LeaderboardPage.Cursor(this.user.credits(), this.id);
+        }
+    }
+
     /**
      * Builds a User from a ResultSet.
      */
     static class UserMapper implements RowMapper<User> {
+        private final UUIDCodec uuids;
+
+        /**
+         * Constructs the object.
+         *
+         * @param uuids Codec used to read UUIDs in the storage layout of the database.
+         */
+        UserMapper(final UUIDCodec uuids) {
+            this.uuids = uuids;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
         @Override
         public User map(final ResultSet rs, final StatementContext ctx) throws SQLException {
-            return new User(UUID.fromString(rs.getString("UUID")), rs.getString("username"), rs.getInt("credits"), rs.getInt("redeemed"));
+            return new User(this.uuids.read(rs, "UUID"), rs.getString("username"), rs.getInt("credits"), rs.getInt("redeemed"));
         }
     }
+
+    /**
+     * Represents the rows read when a user logs in.
+     *
+     * @param user     The user with the UUID that logged in, or null if it does not exist.
+     * @param conflict Another user with the same username, or null if there is none.
+     */
+    private record LoginRows(@Nullable User user, @Nullable User conflict) {
+    }
 }
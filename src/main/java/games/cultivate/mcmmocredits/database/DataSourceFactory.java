@@ -51,12 +51,13 @@ public final class DataSourceFactory {
      *
      * @param properties The DatabaseProperties.
      * @param path       The plugin's data path.
+     * @param poolSize   The maximum amount of connections.
      * @return The data source.
      */
-    public static DataSource createSource(final DatabaseProperties properties, final Path path) {
+    public static DataSource createSource(final DatabaseProperties properties, final Path path, final int poolSize) {
         HikariConfig config = new HikariConfig();
         config.setPoolName("MCMMOCredits %s".formatted(properties.type().name()));
-        config.setMaximumPoolSize(20);
+        config.setMaximumPoolSize(poolSize);
         switch (properties.type()) {
             case H2 -> {
                 ConfigService.createFile(path, "database.mv.db");
@@ -65,6 +66,12 @@ public final class DataSourceFactory {
             case SQLITE -> {
                 Path p = ConfigService.createFile(path, "database.db");
                 config.setJdbcUrl("jdbc:sqlite:%s".formatted(p));
+                //WAL lets reads continue while the single writer holds the lock.
+                config.addDataSourceProperty("journal_mode", "WAL");
+                config.addDataSourceProperty("synchronous", "NORMAL");
+                config.addDataSourceProperty("busy_timeout", 5000);
+                //One extra connection is reserved for the writer.
+                config.setMaximumPoolSize(poolSize + 1);
             }
             case MYSQL -> {
                 //https://github.com/brettwooldridge/HikariCP/wiki/MySQL-Configuration
@@ -77,6 +84,8 @@ public final class DataSourceFactory {
                 config.addDataSourceProperty("cacheServerConfiguration", true);
                 config.addDataSourceProperty("elideSetAutoCommits", true);
                 config.addDataSourceProperty("maintainTimeStats", false);
+                //Required for the driver to respect fetch size instead of reading whole result sets.
+                config.addDataSourceProperty("useCursorFetch", true);
                 config.setUsername(properties.user());
                 config.setPassword(properties.password());
                 config.setJdbcUrl(properties.url());
@@ -0,0 +1,131 @@
+//
+// MIT License
+//
+// Copyright (c) 2024 Cultivate Games
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+package games.cultivate.mcmmocredits.database;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Executor which runs database tasks, limited to the size of the connection pool.
+ * Every task counts against the limit, including tasks submitted from another database task.
+ * Database tasks must therefore never block on each other; chained queries are composed as new stages instead.
+ */
+public final class DatabaseExecutor implements Executor {
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+    private final int size;
+    private final LongAdder tasks;
+    private final LongAdder waitNanos;
+
+    /**
+     * Constructs the object.
+     *
+     * @param delegate The executor which runs tasks.
+     * @param size     The maximum amount of tasks running at once.
+     */
+    private DatabaseExecutor(final ExecutorService delegate, final int size) {
+        this.delegate = delegate;
+        this.size = size;
+        this.permits = new Semaphore(size);
+        this.tasks = new LongAdder();
+        this.waitNanos = new LongAdder();
+    }
+
+    /**
+     * Creates a DatabaseExecutor.
+     * Platform threads are pooled with a fixed size, so queued tasks wait in the queue of the pool instead of on parked threads.
+     *
+     * @param virtualThreads If tasks should run on virtual threads, instead of pooled platform threads.
+     * @param size           The maximum amount of tasks running at once.
+     * @param name           Name used for created threads.
+     * @return The executor.
+     */
+    public static DatabaseExecutor create(final boolean virtualThreads, final int size, final String name) {
+        if (virtualThreads) {
+            return new DatabaseExecutor(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory()), size);
+        }
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread thread = new Thread(r, name + "-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new DatabaseExecutor(Executors.newFixedThreadPool(size, factory), size);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void execute(final Runnable command) {
+        long queued = System.nanoTime();
+        this.delegate.execute(() -> {
+            this.permits.acquireUninterruptibly();
+            this.waitNanos.add(System.nanoTime() - queued);
+            this.tasks.increment();
+            try {
+                command.run();
+            } finally {
+                this.permits.release();
+            }
+        });
+    }
+
+    /**
+     * Stops accepting tasks and waits for running tasks to finish.
+     */
+    public void shutdown() {
+        this.delegate.shutdown();
+        try {
+            this.delegate.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets the maximum amount of tasks running at once.
+     *
+     * @return The size of the executor.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets the average time tasks spent waiting before they started running.
+     *
+     * @return The average queue wait time, in milliseconds.
+     */
+    public double averageWaitMillis() {
+        long count = this.tasks.sum();
+        return count == 0 ? 0 : this.waitNanos.sum() / (count * 1_000_000D);
+    }
+}
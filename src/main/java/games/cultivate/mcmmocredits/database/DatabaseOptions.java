@@ -0,0 +1,58 @@
+//
+// MIT License
+//
+// Copyright (c) 2024 Cultivate Games
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+package games.cultivate.mcmmocredits.database;
+
+/**
+ * Options used to tune the behaviour of a Database.
+ *
+ * @param virtualThreads If queries should run on virtual threads, instead of pooled platform threads.
+ * @param poolSize       Maximum amount of connections and concurrent queries. Uses the default of the database type if 0.
+ * @param writeBehind    If balance updates should be queued and written in batches.
+ * @param flushInterval  Time between flushes of queued updates, in milliseconds.
+ * @param flushThreshold Amount of queued updates which triggers an early flush.
+ * @param binaryUuids    If UUIDs should be stored as 16 bytes instead of text. Existing tables are converted on startup.
+ */
+public record DatabaseOptions(boolean virtualThreads, int poolSize, boolean writeBehind, long flushInterval, int flushThreshold, boolean binaryUuids) {
+    /**
+     * Constructs the object with sane defaults.
+     *
+     * @return The object.
+     */
+    public static DatabaseOptions defaults() {
+        return new DatabaseOptions(true, 0, false, 1000L, 500, false);
+    }
+
+    /**
+     * Replaces unset options with the defaults of the provided database type.
+     *
+     * @param type The type of the database.
+     * @return The resolved options.
+     */
+    public DatabaseOptions resolve(final DatabaseType type) {
+        if (this.poolSize > 0) {
+            return this;
+        }
+        return new DatabaseOptions(this.virtualThreads, type.poolSize(), this.writeBehind, this.flushInterval, this.flushThreshold, this.binaryUuids);
+    }
+}
@@ -54,7 +54,7 @@ public record DatabaseProperties(DatabaseType type, String url, String user, Str
      * @return The database.
      */
     public AbstractDatabase create(final DataSource source) {
-        return this.type.create(source);
+        return this.type.create(source, DatabaseOptions.defaults());
     }
 
     /**
@@ -64,6 +64,18 @@ public record DatabaseProperties(DatabaseType type, String url, String user, Str
      * @return The database.
      */
     public AbstractDatabase create(final Path path) {
-        return this.type.create(DataSourceFactory.createSource(this, path));
+        return this.create(path, DatabaseOptions.defaults());
+    }
+
+    /**
+     * Creates an instance of the database using the provided path to create a DataSource.
+     *
+     * @param path    The path.
+     * @param options Options used to tune the database.
+     * @return The database.
+     */
+    public AbstractDatabase create(final Path path, final DatabaseOptions options) {
+        DatabaseOptions resolved = options.resolve(this.type);
+        return this.type.create(DataSourceFactory.createSource(this, path, resolved.poolSize()), resolved);
     }
 }
@@ -24,29 +24,42 @@
 package games.cultivate.mcmmocredits.database;
 
 import javax.sql.DataSource;
-import java.util.function.Function;
+import java.util.function.BiFunction;
 
 /**
  * Database connection strategies.
  */
 public enum DatabaseType {
-    MYSQL(MySqlDatabase::new),
-    SQLITE(SQLiteDatabase::new),
-    H2(H2Database::new);
+    MYSQL(MySqlDatabase::new, 20),
+    SQLITE(SQLiteDatabase::new, 4),
+    H2(H2Database::new, 20);
 
-    private final Function<DataSource, AbstractDatabase> function;
+    private final BiFunction<DataSource, DatabaseOptions, AbstractDatabase> function;
+    private final int poolSize;
 
-    DatabaseType(final Function<DataSource, AbstractDatabase> function) {
+    DatabaseType(final BiFunction<DataSource, DatabaseOptions, AbstractDatabase> function, final int poolSize) {
         this.function = function;
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * Gets the default amount of connections and concurrent queries.
+     * For SQLite this is the amount of WAL readers. SQLite only allows one writer, so writes use one extra connection on a dedicated thread.
+     *
+     * @return The default pool size.
+     */
+    public int poolSize() {
+        return this.poolSize;
     }
 
     /**
      * Creates a Database using the assigned function.
      *
-     * @param source The DataSource.
+     * @param source  The DataSource.
+     * @param options Options used to tune the database.
      * @return A database.
      */
-    public AbstractDatabase create(final DataSource source) {
-        return this.function.apply(source);
+    public AbstractDatabase create(final DataSource source, final DatabaseOptions options) {
+        return this.function.apply(source, options.resolve(this));
     }
 }
@@ -35,10 +35,11 @@ public class H2Database extends AbstractDatabase {
     /**
      * Constructs the object.
      *
-     * @param source The DataSource.
+     * @param source  The DataSource.
+     * @param options Options used to tune the database.
      */
-    public H2Database(final DataSource source) {
-        super(source);
+    public H2Database(final DataSource source, final DatabaseOptions options) {
+        super(source, options);
     }
 
     /**
@@ -46,7 +47,7 @@ public class H2Database extends AbstractDatabase {
      */
     @Override
     Jdbi createJdbi() {
-        return Jdbi.create(this.source).registerRowMapper(new UserMapper()).installPlugin(new H2DatabasePlugin());
+        return Jdbi.create(this.source).installPlugin(new H2DatabasePlugin()).registerArgument(this.uuids).registerRowMapper(new UserMapper(this.uuids));
     }
 
     /**
@@ -0,0 +1,56 @@
+//
+// MIT License
+//
+// Copyright (c) 2024 Cultivate Games
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+package games.cultivate.mcmmocredits.database;
+
+import games.cultivate.mcmmocredits.user.User;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Represents a page of the leaderboard, ordered by credits and then by id.
+ *
+ * @param users Users on the page, ordered by rank.
+ * @param rank  Rank of the first user on the page, starting at 1.
+ * @param next  Cursor positioned after the last user on the page, used to seek the next page. Null if the page is empty.
+ */
+public record LeaderboardPage(List<User> users, int rank, @Nullable Cursor next) {
+    /**
+     * Creates an empty page.
+     *
+     * @return The page.
+     */
+    public static LeaderboardPage empty() {
+        return new LeaderboardPage(List.of(), 0, null);
+    }
+
+    /**
+     * Represents a position within the leaderboard.
+     *
+     * @param credits Credit balance of the user at the position.
+     * @param id      Row id of the user at the position.
+     */
+    public record Cursor(int credits, int id) {
+    }
+}
@@ -0,0 +1,99 @@
+//
+// MIT License
+//
+// Copyright (c) 2024 Cultivate Games
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+package games.cultivate.mcmmocredits.database;
+
+import org.jdbi.v3.core.Handle;
+
+import java.util.List;
+
+/**
+ * Represents a versioned change to the database schema.
+ *
+ * @param version     The schema version after the migration is applied.
+ * @param description Short description of the migration.
+ * @param step        The change to apply.
+ */
+public record Migration(int version, String description, Step step) {
+    /**
+     * Creates a Migration which executes statements.
+     *
+     * @param version     The schema version after the migration is applied.
+     * @param description Short description of the migration.
+     * @param statements  Statements to execute, in order.
+     * @return The migration.
+     */
+    public static Migration of(final int version, final String description, final String... statements) {
+        List<String> list = List.of(statements);
+        return new Migration(version, description, handle -> list.forEach(handle::execute));
+    }
+
+    /**
+     * Applies all migrations newer than the current schema version, in order.
+     * Each migration runs in its own transaction and is recorded in the version table.
+     * DDL statements commit implicitly on MySQL and H2, so a failed migration may be partially applied.
+     * Steps must therefore be safe to run again from the start.
+     *
+     * @param handle     The handle used to execute statements.
+     * @param migrations The ordered list of migrations.
+     * @return The schema version after all migrations were applied.
+     */
+    public static int migrate(final Handle handle, final List<Migration> migrations) {
+        handle.execute("CREATE TABLE IF NOT EXISTS MCMMOCredits_schema(version INT NOT NULL,description VARCHAR(255) NOT NULL);");
+        int current = handle.createQuery("SELECT COALESCE(MAX(version), 0) FROM MCMMOCredits_schema;").mapTo(int.class).one();
+        for (Migration migration : migrations) {
+            if (migration.version() <= current) {
+                continue;
+            }
+            migration.apply(handle);
+            current = migration.version();
+        }
+        return current;
+    }
+
+    /**
+     * Applies the migration in a transaction, and records it in the version table.
+     * Repeatable migrations, such as changes of the UUID layout, use version 0 and are recorded every time they are applied.
+     *
+     * @param handle The handle used to execute statements.
+     */
+    public void apply(final Handle handle) {
+        handle.useTransaction(h -> {
+            this.step.apply(h);
+            h.createUpdate("INSERT INTO MCMMOCredits_schema(version, description) VALUES(:version,:description);").bind("version", this.version).bind("description", this.description).execute();
+        });
+    }
+
+    /**
+     * Represents the change made by a migration.
+     */
+    @FunctionalInterface
+    public interface Step {
+        /**
+         * Applies the change.
+         *
+         * @param handle The handle used to execute statements.
+         */
+        void apply(Handle handle);
+    }
+}
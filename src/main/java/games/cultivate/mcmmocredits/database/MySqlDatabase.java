@@ -24,13 +24,8 @@
 package games.cultivate.mcmmocredits.database;
 
 import org.jdbi.v3.core.Jdbi;
-import org.jdbi.v3.core.argument.AbstractArgumentFactory;
-import org.jdbi.v3.core.argument.Argument;
-import org.jdbi.v3.core.config.ConfigRegistry;
 
 import javax.sql.DataSource;
-import java.sql.Types;
-import java.util.UUID;
 
 /**
  * Represents a MySql Database.
@@ -39,10 +34,11 @@ public class MySqlDatabase extends AbstractDatabase {
     /**
      * Constructs the object.
      *
-     * @param source The DataSource.
+     * @param source  The DataSource.
+     * @param options Options used to tune the database.
      */
-    public MySqlDatabase(final DataSource source) {
-        super(source);
+    public MySqlDatabase(final DataSource source, final DatabaseOptions options) {
+        super(source, options);
     }
 
     /**
@@ -50,24 +46,6 @@ public class MySqlDatabase extends AbstractDatabase {
      */
     @Override
     Jdbi createJdbi() {
-        return Jdbi.create(this.source).registerArgument(new UUIDFactory()).registerRowMapper(new UserMapper());
+        return Jdbi.create(this.source).registerArgument(this.uuids).registerRowMapper(new UserMapper(this.uuids));
     }
-
-    /**
-     * Argument Factory required for better MySQL compatibility with UUID data type.
-     */
-    static class UUIDFactory extends AbstractArgumentFactory<UUID> {
-        protected UUIDFactory() {
-            super(Types.VARCHAR);
-        }
-
-        /**
-         * {@inheritDoc}
-         */
-        @Override
-        protected Argument build(final UUID value, final ConfigRegistry config) {
-            return (p, s, c) -> s.setString(p, value.toString());
-        }
-    }
-
 }
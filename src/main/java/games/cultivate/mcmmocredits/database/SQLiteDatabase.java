@@ -27,6 +27,7 @@ import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.sqlite3.SQLitePlugin;
 
 import javax.sql.DataSource;
+import java.util.Map;
 
 /**
  * Represents a SQLite Database.
@@ -35,10 +36,11 @@ public class SQLiteDatabase extends AbstractDatabase {
     /**
      * Constructs the object.
      *
-     * @param source The DataSource.
+     * @param source  The DataSource.
+     * @param options Options used to tune the database.
      */
-    public SQLiteDatabase(final DataSource source) {
-        super(source);
+    public SQLiteDatabase(final DataSource source, final DatabaseOptions options) {
+        super(source, options);
     }
 
     /**
@@ -46,14 +48,51 @@ public class SQLiteDatabase extends AbstractDatabase {
      */
     @Override
     Jdbi createJdbi() {
-        return Jdbi.create(this.source).registerRowMapper(new UserMapper()).installPlugin(new SQLitePlugin());
+        return Jdbi.create(this.source).installPlugin(new SQLitePlugin()).registerArgument(this.uuids).registerRowMapper(new UserMapper(this.uuids));
     }
 
     /**
      * {@inheritDoc}
+     * SQLite only allows one writer at a time, so writes are serialized on a single thread instead of contending for the lock.
      */
     @Override
-    public void createTable() {
-        this.jdbi.useHandle(handle -> handle.execute("CREATE TABLE IF NOT EXISTS MCMMOCredits(id INTEGER PRIMARY KEY AUTOINCREMENT,UUID VARCHAR NOT NULL,username VARCHAR NOT NULL,credits INT CHECK(credits >= 0),redeemed INT);"));
+    DatabaseExecutor createWriteThreads(final DatabaseOptions options) {
+        return DatabaseExecutor.create(options.virtualThreads(), 1, "MCMMOCredits SQLite Writer");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    String upsertUser() {
+        return "INSERT INTO MCMMOCredits(UUID, username, credits, redeemed) VALUES(:uuid,:username,0,0) ON CONFLICT(UUID) DO UPDATE SET username = excluded.username;";
+    }
+
+    /**
+     * {@inheritDoc}
+     * Uses the collation of the username index, since SQLite compares case-sensitively by default.
+     */
+    @Override
+    String matchUsername() {
+        return "username = :username COLLATE NOCASE";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    String createTable(final String table, final boolean binary) {
+        return "CREATE TABLE IF NOT EXISTS %s(id INTEGER PRIMARY KEY AUTOINCREMENT,UUID %s NOT NULL,username VARCHAR NOT NULL,credits INT CHECK(credits >= 0),redeemed INT);".formatted(table, binary ? "BLOB" : "VARCHAR");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    Map<String, String> indexes(final String table) {
+        return Map.of(
+                "mcmmocredits_uuid", "CREATE UNIQUE INDEX mcmmocredits_uuid ON %s(UUID);".formatted(table),
+                "mcmmocredits_username", "CREATE INDEX mcmmocredits_username ON %s(username COLLATE NOCASE);".formatted(table),
+                "mcmmocredits_credits", "CREATE INDEX mcmmocredits_credits ON %s(credits DESC, id);".formatted(table));
     }
 }
@@ -0,0 +1,125 @@
+//
+// MIT License
+//
+// Copyright (c) 2024 Cultivate Games
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+package games.cultivate.mcmmocredits.database;
+
+import org.jdbi.v3.core.argument.Argument;
+import org.jdbi.v3.core.argument.ArgumentFactory;
+import org.jdbi.v3.core.config.ConfigRegistry;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Argument Factory which binds and reads UUIDs using the storage layout of the database.
+ * UUIDs are stored either as text, or as 16 bytes when the binary layout is enabled.
+ * The layout is read whenever a UUID is bound, including the SQL type of null UUIDs.
+ */
+final class UUIDCodec implements ArgumentFactory.Preparable {
+    private volatile boolean binary;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Function<Object, Argument>> prepare(final Type type, final ConfigRegistry config) {
+        return type == UUID.class ? Optional.of(x -> this.build((UUID) x)) : Optional.empty();
+    }
+
+    /**
+     * Builds an argument which binds a UUID in the current storage layout.
+     *
+     * @param value The UUID, or null.
+     * @return The argument.
+     */
+    Argument build(final @Nullable UUID value) {
+        boolean bytes = this.binary;
+        if (value == null) {
+            int sqlType = bytes ? Types.BINARY : Types.VARCHAR;
+            return (p, s, c) -> s.setNull(p, sqlType);
+        }
+        if (bytes) {
+            byte[] array = toBytes(value);
+            return (p, s, c) -> s.setBytes(p, array);
+        }
+        return (p, s, c) -> s.setString(p, value.toString());
+    }
+
+    /**
+     * Reads a UUID from the specified column of a ResultSet.
+     *
+     * @param rs     The ResultSet.
+     * @param column The column label.
+     * @return The UUID.
+     * @throws SQLException Thrown if the column cannot be read.
+     */
+    UUID read(final ResultSet rs, final String column) throws SQLException {
+        return this.binary ? fromBytes(rs.getBytes(column)) : UUID.fromString(rs.getString(column));
+    }
+
+    /**
+     * Gets if UUIDs are stored as bytes.
+     *
+     * @return True if the binary layout is used, otherwise false.
+     */
+    boolean binary() {
+        return this.binary;
+    }
+
+    /**
+     * Sets if UUIDs are stored as bytes.
+     *
+     * @param binary If the binary layout is used.
+     */
+    void binary(final boolean binary) {
+        this.binary = binary;
+    }
+
+    /**
+     * Converts a UUID to 16 bytes, most significant bits first.
+     *
+     * @param uuid The UUID.
+     * @return The bytes.
+     */
+    static byte[] toBytes(final UUID uuid) {
+        return ByteBuffer.allocate(16).putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits()).array();
+    }
+
+    /**
+     * Converts 16 bytes to a UUID.
+     *
+     * @param bytes The bytes.
+     * @return The UUID.
+     */
+    static UUID fromBytes(final byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
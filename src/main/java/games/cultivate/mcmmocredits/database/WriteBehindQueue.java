@@ -0,0 +1,215 @@
+//
+// MIT License
+//
+// Copyright (c) 2024 Cultivate Games
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+package games.cultivate.mcmmocredits.database;
+
+import games.cultivate.mcmmocredits.user.User;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.async.JdbiExecutor;
+import org.jdbi.v3.core.statement.PreparedBatch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Queue which coalesces balance updates per UUID and writes them to the database in batches.
+ */
+public final class WriteBehindQueue {
+    private final JdbiExecutor writer;
+    private final int threshold;
+    private final Map<UUID, PendingWrite> pending;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean flushRequested;
+    private final LongAdder flushes;
+    private final LongAdder flushNanos;
+
+    /**
+     * Constructs the object.
+     *
+     * @param writer    The executor used for all writes to the database.
+     * @param interval  Time between flushes, in milliseconds.
+     * @param threshold Amount of queued updates which triggers an early flush.
+     */
+    WriteBehindQueue(final JdbiExecutor writer, final long interval, final int threshold) {
+        this.writer = writer;
+        this.threshold = threshold;
+        this.pending = new ConcurrentHashMap<>();
+        this.flushRequested = new AtomicBoolean();
+        this.flushes = new LongAdder();
+        this.flushNanos = new LongAdder();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "MCMMOCredits Write Queue");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues a new credit balance for the user with the specified UUID.
+     *
+     * @param uuid    The UUID of the user.
+     * @param credits The new credit balance.
+     */
+    public void add(final UUID uuid, final int credits) {
+        this.queue(uuid, new PendingWrite(credits, null));
+    }
+
+    /**
+     * Queues the credit balance and redeemed credits of the provided user.
+     *
+     * @param user The user.
+     */
+    public void add(final User user) {
+        this.queue(user.uuid(), new PendingWrite(user.credits(), user.redeemed()));
+    }
+
+    /**
+     * Applies queued changes to a user which was read from the database.
+     *
+     * @param user The user read from the database.
+     * @return The user, including any queued changes.
+     */
+    public User overlay(final User user) {
+        PendingWrite write = this.pending.get(user.uuid());
+        if (write == null) {
+            return user;
+        }
+        return new User(user.uuid(), user.username(), write.credits(), write.redeemed() == null ? user.redeemed() : write.redeemed());
+    }
+
+    /**
+     * Writes all queued updates on the database's write executor, and waits for them to be written.
+     * Flushes never use their own connection, so a database with a single writer is never written to concurrently.
+     */
+    public void flush() {
+        this.flushRequested.set(false);
+        if (this.pending.isEmpty()) {
+            return;
+        }
+        try {
+            this.writer.useHandle(handle -> this.flush(handle, this.pending.keySet())).toCompletableFuture().join();
+        } catch (Exception e) {
+            Logger.getLogger("Minecraft").log(Level.SEVERE, "Failed to flush queued credit updates!", e);
+        }
+    }
+
+    /**
+     * Writes queued updates of the specified users using the provided handle.
+     * Must be called before writing balances of the users directly, so the queue cannot overwrite newer values.
+     * Updates stay queued until the batch is committed, so reads never see an older balance, and a failed batch is retried on the next flush.
+     *
+     * @param handle The handle.
+     * @param uuids  The UUIDs of users to write.
+     */
+    public synchronized void flush(final Handle handle, final Collection<UUID> uuids) {
+        List<UUID> keys = new ArrayList<>();
+        List<PendingWrite> writes = new ArrayList<>();
+        for (UUID uuid : List.copyOf(uuids)) {
+            PendingWrite write = this.pending.get(uuid);
+            if (write != null) {
+                keys.add(uuid);
+                writes.add(write);
+            }
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            handle.useTransaction(h -> {
+                PreparedBatch batch = h.prepareBatch("UPDATE MCMMOCredits SET credits = :credits, redeemed = COALESCE(:redeemed, redeemed) WHERE UUID = :uuid;");
+                for (int i = 0; i < keys.size(); i++) {
+                    batch.bind("uuid", keys.get(i)).bind("credits", writes.get(i).credits()).bind("redeemed", writes.get(i).redeemed()).add();
+                }
+                batch.execute();
+            });
+            //Updates queued while the batch was written are newer, so they are kept.
+            for (int i = 0; i < keys.size(); i++) {
+                this.pending.remove(keys.get(i), writes.get(i));
+            }
+        } finally {
+            this.flushes.increment();
+            this.flushNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Stops the flush schedule and writes all remaining updates.
+     */
+    public void close() {
+        this.scheduler.shutdown();
+        try {
+            this.scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.flush();
+    }
+
+    /**
+     * Gets the amount of users with queued updates.
+     *
+     * @return The queue depth.
+     */
+    public int depth() {
+        return this.pending.size();
+    }
+
+    /**
+     * Gets the average time spent writing a batch of updates.
+     *
+     * @return The average flush latency, in milliseconds.
+     */
+    public double averageFlushMillis() {
+        long count = this.flushes.sum();
+        return count == 0 ? 0 : this.flushNanos.sum() / (count * 1_000_000D);
+    }
+
+    private void queue(final UUID uuid, final PendingWrite write) {
+        this.pending.merge(uuid, write, (old, latest) -> latest.redeemed() == null ? new PendingWrite(latest.credits(), old.redeemed()) : latest);
+        if (this.pending.size() >= this.threshold && !this.scheduler.isShutdown() && this.flushRequested.compareAndSet(false, true)) {
+            this.scheduler.execute(this::flush);
+        }
+    }
+
+    /**
+     * Represents a queued update.
+     *
+     * @param credits  The new credit balance.
+     * @param redeemed The new amount of redeemed credits, or null if unchanged.
+     */
+    private record PendingWrite(int credits, Integer redeemed) {
+    }
+}
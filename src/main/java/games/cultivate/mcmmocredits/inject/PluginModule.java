@@ -27,7 +27,9 @@ import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import games.cultivate.mcmmocredits.MCMMOCredits;
 import games.cultivate.mcmmocredits.commands.Commands;
+import games.cultivate.mcmmocredits.config.Config;
 import games.cultivate.mcmmocredits.config.ConfigService;
+import games.cultivate.mcmmocredits.config.MainData;
 import games.cultivate.mcmmocredits.converters.CSVConverter;
 import games.cultivate.mcmmocredits.converters.Converter;
 import games.cultivate.mcmmocredits.converters.ConverterProperties;
@@ -35,6 +37,9 @@ import games.cultivate.mcmmocredits.converters.ConverterType;
 import games.cultivate.mcmmocredits.converters.InternalConverter;
 import games.cultivate.mcmmocredits.converters.PluginConverter;
 import games.cultivate.mcmmocredits.database.AbstractDatabase;
+import games.cultivate.mcmmocredits.database.DatabaseOptions;
+import games.cultivate.mcmmocredits.transaction.BulkTransactionEngine;
+import games.cultivate.mcmmocredits.transaction.TransactionEngine;
 import games.cultivate.mcmmocredits.user.UserService;
 import games.cultivate.mcmmocredits.util.ChatQueue;
 import games.cultivate.mcmmocredits.util.Dir;
@@ -67,6 +72,8 @@ public final class PluginModule extends AbstractModule {
         this.bind(MCMMOCredits.class).toInstance(this.plugin);
         this.bind(Path.class).annotatedWith(Dir.class).toInstance(this.plugin.getDataFolder().toPath());
         this.bind(UserService.class).asEagerSingleton();
+        this.bind(TransactionEngine.class).asEagerSingleton();
+        this.bind(BulkTransactionEngine.class).asEagerSingleton();
         this.bind(ChatQueue.class).asEagerSingleton();
         this.bind(Commands.class).asEagerSingleton();
         this.bind(ConfigService.class).asEagerSingleton();
@@ -82,7 +89,9 @@ public final class PluginModule extends AbstractModule {
     @Provides
     @Singleton
     public AbstractDatabase provideDatabase(final ConfigService configService, final @Dir Path path) {
-        return configService.getProperties("settings", "database").create(path);
+        Config<MainData> config = configService.mainConfig();
+        DatabaseOptions options = new DatabaseOptions(config.getBoolean("settings", "database-virtual-threads"), config.getInteger("settings", "database-pool-size"), config.getBoolean("settings", "write-behind-enabled"), config.getInteger("settings", "write-behind-interval"), config.getInteger("settings", "write-behind-threshold"), config.getBoolean("settings", "binary-uuids"));
+        return configService.getProperties("settings", "database").create(path, options);
     }
 
     /**
@@ -23,12 +23,11 @@
 //
 package games.cultivate.mcmmocredits.menu;
 
-import games.cultivate.mcmmocredits.text.Text;
-import games.cultivate.mcmmocredits.user.User;
 import net.kyori.adventure.text.Component;
 import org.bukkit.Material;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
+import org.jetbrains.annotations.Nullable;
 import org.spongepowered.configurate.objectmapping.ConfigSerializable;
 
 import java.util.ArrayList;
@@ -66,20 +65,19 @@ public record Item(ItemStack stack, String name, List<String> lore, int slot, It
     }
 
     /**
-     * Updates the name and lore based on the User.
+     * Creates a copy of the ItemStack with a rendered name and lore. Menus render both from templates compiled by {@link RedeemMenu}.
      *
-     * @param user The user to parse against.
+     * @param name The rendered name, or null to keep the name of the stack.
+     * @param lore The rendered lore, or null to keep the lore of the stack.
      * @return A Bukkit ItemStack with updated properties.
      */
-    public ItemStack parseUser(final User user) {
+    public ItemStack parse(final @Nullable Component name, final @Nullable List<Component> lore) {
         ItemMeta meta = this.stack.getItemMeta();
-        if (!this.name.isEmpty()) {
-            Component itemName = Text.forOneUser(user, this.name).toComponent();
-            meta.displayName(itemName);
+        if (name != null) {
+            meta.displayName(name);
         }
-        if (!this.lore.stream().allMatch(String::isEmpty)) {
-            List<Component> itemLore = this.lore.stream().map(x -> Text.forOneUser(user, x).toComponent()).toList();
-            meta.lore(itemLore);
+        if (lore != null) {
+            meta.lore(lore);
         }
         ItemStack copy = this.stack.clone();
         copy.setItemMeta(meta);
@@ -0,0 +1,119 @@
+//
+// MIT License
+//
+// Copyright (c) 2024 Cultivate Games
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+package games.cultivate.mcmmocredits.menu;
+
+import games.cultivate.mcmmocredits.placeholders.Resolver;
+import games.cultivate.mcmmocredits.text.Text;
+import games.cultivate.mcmmocredits.user.User;
+import games.cultivate.mcmmocredits.user.UserService;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Represents a RedeemMenu opened by a user. Holds the inventory and all other state of a single opening.
+ */
+public final class MenuView implements InventoryHolder {
+    private final RedeemMenu menu;
+    private final Inventory inventory;
+    private @Nullable Runnable unwatch;
+
+    /**
+     * Constructs the object. Creates the inventory and draws all items for the user.
+     *
+     * @param menu The menu.
+     * @param user The user who opens the menu.
+     */
+    public MenuView(final RedeemMenu menu, final User user) {
+        this.menu = menu;
+        this.inventory = Bukkit.createInventory(this, menu.slots(), Text.fromTemplate(user, menu.titleTemplate(), Resolver.ofUser(user)).toComponent());
+        menu.entries().forEach(x -> this.inventory.setItem(x.item().slot(), x.parseUser(user)));
+    }
+
+    /**
+     * Redraws items when the user is changed through the UserService, until {@link #close()} is called.
+     *
+     * @param plugin  Plugin used to schedule the redraw on the player's thread.
+     * @param service The UserService.
+     * @param uuid    The UUID of the user.
+     */
+    public void watch(final Plugin plugin, final UserService service, final UUID uuid) {
+        this.unwatch = service.watch(uuid, (previous, user) -> this.refresh(plugin, previous, user));
+    }
+
+    /**
+     * Stops redrawing items within the inventory.
+     */
+    public void close() {
+        if (this.unwatch != null) {
+            this.unwatch.run();
+        }
+        this.unwatch = null;
+    }
+
+    /**
+     * Redraws the items which are affected by a change of the user.
+     * Only the changed placeholder keys are found on the calling thread, which reported the change.
+     * Items are parsed and placed by the player's scheduler, since the inventory may only be changed by the thread which owns the player on Folia.
+     *
+     * @param plugin   Plugin used to schedule the redraw.
+     * @param previous The user before the change.
+     * @param user     The user after the change.
+     */
+    public void refresh(final Plugin plugin, final User previous, final User user) {
+        Set<String> keys = Text.forOneUser(user).changedKeys(Text.forOneUser(previous));
+        List<RedeemMenu.Entry> entries = this.menu.entries().stream().filter(x -> x.uses(keys)).toList();
+        Player player = user.player();
+        if (entries.isEmpty() || player == null) {
+            return;
+        }
+        player.getScheduler().run(plugin, x -> entries.forEach(y -> this.inventory.setItem(y.item().slot(), y.parseUser(user))), null);
+    }
+
+    /**
+     * Returns the menu which was opened.
+     *
+     * @return The menu.
+     */
+    public RedeemMenu menu() {
+        return this.menu;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @NotNull Inventory getInventory() {
+        return this.inventory;
+    }
+
+}
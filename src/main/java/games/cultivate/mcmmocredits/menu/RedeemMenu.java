@@ -23,30 +23,39 @@
 //
 package games.cultivate.mcmmocredits.menu;
 
+import com.gmail.nossr50.datatypes.skills.PrimarySkillType;
 import games.cultivate.mcmmocredits.MCMMOCredits;
+import games.cultivate.mcmmocredits.placeholders.Resolver;
+import games.cultivate.mcmmocredits.text.Template;
 import games.cultivate.mcmmocredits.text.Text;
 import games.cultivate.mcmmocredits.user.User;
-import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
-import org.bukkit.Bukkit;
-import org.bukkit.inventory.Inventory;
-import org.bukkit.inventory.InventoryHolder;
-import org.jetbrains.annotations.NotNull;
+import games.cultivate.mcmmocredits.user.UserService;
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Optional;
-import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
 
 /**
- * Represents a Bukkit Inventory with populated item slots.
+ * Represents the layout of a menu, parsed once from configuration. Each opened menu is a separate {@link MenuView}.
+ * The title, and the name and lore of every item, are compiled into templates when the menu is parsed.
  */
-public final class RedeemMenu implements InventoryHolder {
+public final class RedeemMenu {
     private final Map<String, Item> items;
     private final String title;
+    private final Template titleTemplate;
     private final int slots;
     private final boolean fill;
     private final boolean navigation;
-    private Inventory inventory;
-    private ScheduledTask task;
+    private final Entry[] entries;
+    private final List<Entry> placed;
 
     /**
      * Constructs the object.
@@ -58,66 +67,83 @@ public final class RedeemMenu implements InventoryHolder {
      * @param navigation If the menu will have a navigation item.
      */
     public RedeemMenu(final Map<String, Item> items, final String title, final int slots, final boolean fill, final boolean navigation) {
-        this.items = items;
-        this.title = title;
-        this.slots = slots;
-        this.fill = fill;
-        this.navigation = navigation;
-        this.inventory = null;
-        this.task = null;
+        this(items, Map.of(), title, slots, fill, navigation);
     }
 
     /**
-     * Opens the inventory for the provided User. Executed on the following tick.
+     * Constructs the object.
+     * Items are indexed by slot, along with their command or skill, and their name and lore are compiled.
+     * Redeem items which are not named after a skill are logged and left without an action.
      *
-     * @param plugin Plugin to execute the opening later.
-     * @param user   The user to open the inventory on.
+     * @param items      Map of items and their internal names.
+     * @param commands   Map of commands executed by items and the internal names of the items.
+     * @param title      Unparsed title of the inventory.
+     * @param slots      Size of the inventory.
+     * @param fill       If the menu will be filled.
+     * @param navigation If the menu will have a navigation item.
      */
-    public void openInventory(final MCMMOCredits plugin, final User user) {
-        this.inventory = Bukkit.getServer().createInventory(this, this.slots, Text.forOneUser(user, this.title).toComponent());
-        this.setItems(user);
-        Bukkit.getGlobalRegionScheduler().run(plugin, x -> user.player().openInventory(this.inventory));
-        this.task = Bukkit.getAsyncScheduler().runAtFixedRate(plugin, x -> this.setItems(user), 50, 1000, TimeUnit.MILLISECONDS);
+    public RedeemMenu(final Map<String, Item> items, final Map<String, String> commands, final String title, final int slots, final boolean fill, final boolean navigation) {
+        this.items = Map.copyOf(items);
+        this.entries = new Entry[slots];
+        this.placed = new ArrayList<>();
+        Map<String, Template> compiled = new HashMap<>();
+        items.forEach((k, v) -> {
+            if (v.slot() < 0 || v.slot() >= slots) {
+                return;
+            }
+            PrimarySkillType skill = null;
+            if (v.action() == ItemAction.REDEEM) {
+                try {
+                    skill = PrimarySkillType.valueOf(k.toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    Logger.getLogger("Minecraft").warning(String.format("Menu item %s is not a valid skill, it will not redeem credits!", k));
+                }
+            }
+            Template name = compiled.computeIfAbsent(v.name(), Template::compile);
+            List<Template> lore = v.lore().stream().map(x -> compiled.computeIfAbsent(x, Template::compile)).toList();
+            Entry entry = new Entry(k, v, commands.get(k), skill, name, lore);
+            this.entries[v.slot()] = entry;
+            this.placed.add(entry);
+        });
+        this.title = title;
+        this.titleTemplate = Template.compile(title);
+        this.slots = slots;
+        this.fill = fill;
+        this.navigation = navigation;
     }
 
     /**
-     * Cancels the task which redraws items within the inventory.
+     * Opens a new view of the menu for the provided User. Executed on the following tick.
+     * Items are redrawn when the user is changed through the UserService, until the inventory is closed.
+     *
+     * @param plugin  Plugin to execute the opening later.
+     * @param service UserService to watch the user for changes.
+     * @param user    The user to open the inventory on.
      */
-    public void cancelRefresh() {
-        if (this.task != null) {
-            this.task.cancel();
-        }
-        this.task = null;
+    public void openInventory(final MCMMOCredits plugin, final UserService service, final User user) {
+        MenuView view = new MenuView(this, user);
+        Player player = user.player();
+        player.getScheduler().run(plugin, x -> player.openInventory(view.getInventory()), null);
+        view.watch(plugin, service, user.uuid());
     }
 
     /**
-     * Gets an item map entry at the provided slot if it exists.
+     * Gets the item entry at the provided slot.
      *
      * @param slot The slot.
-     * @return The item map entry.
+     * @return The item entry, or null if there is no item at the slot.
      */
-    public Optional<Map.Entry<String, Item>> getItem(final int slot) {
-        return this.items.entrySet().stream().filter(x -> x.getValue().slot() == slot).findAny();
+    public @Nullable Entry getEntry(final int slot) {
+        return slot >= 0 && slot < this.entries.length ? this.entries[slot] : null;
     }
 
     /**
-     * Redraws items to the inventory. Parses placeholders against provided user.
+     * Gets the entries of all items which are placed in the menu.
      *
-     * @param user The user.
-     */
-    public void setItems(final User user) {
-        this.items.forEach((k, v) -> this.inventory.setItem(v.slot(), v.parseUser(user)));
-    }
-
-    /**
-     * {@inheritDoc}
+     * @return The entries.
      */
-    @Override
-    public @NotNull Inventory getInventory() {
-        if (this.inventory == null) {
-            this.inventory = Bukkit.createInventory(this, this.slots);
-        }
-        return this.inventory;
+    public List<Entry> entries() {
+        return this.placed;
     }
 
     /**
@@ -138,6 +164,15 @@ public final class RedeemMenu implements InventoryHolder {
         return this.title;
     }
 
+    /**
+     * Returns the compiled title.
+     *
+     * @return The compiled title.
+     */
+    public Template titleTemplate() {
+        return this.titleTemplate;
+    }
+
     /**
      * Returns the size of the inventory.
      *
@@ -164,4 +199,39 @@ public final class RedeemMenu implements InventoryHolder {
     public boolean navigation() {
         return this.navigation;
     }
+
+    /**
+     * Represents an item in a slot of the menu, with everything needed to draw it and handle a click.
+     *
+     * @param key     Internal name of the item.
+     * @param item    The item.
+     * @param command Command executed when the item is clicked, or null if the item does not execute a command.
+     * @param skill   Skill redeemed when the item is clicked, or null if the item does not redeem a skill.
+     * @param name    Compiled name of the item.
+     * @param lore    Compiled lore of the item.
+     */
+    public record Entry(String key, Item item, @Nullable String command, @Nullable PrimarySkillType skill, Template name, List<Template> lore) {
+        /**
+         * Updates the name and lore based on the User, rendered from the compiled templates.
+         *
+         * @param user The user to parse against.
+         * @return A Bukkit ItemStack with updated properties.
+         */
+        public ItemStack parseUser(final User user) {
+            Resolver resolver = Text.forOneUser(user);
+            Component name = this.item.name().isEmpty() ? null : Text.fromTemplate(user.sender(), this.name, resolver).toComponent();
+            List<Component> lore = this.item.lore().stream().allMatch(String::isEmpty) ? null : this.lore.stream().map(x -> Text.fromTemplate(user.sender(), x, resolver).toComponent()).toList();
+            return this.item.parse(name, lore);
+        }
+
+        /**
+         * Checks if the name or lore may be affected by a change of the specified placeholders.
+         *
+         * @param keys Placeholder keys which changed.
+         * @return True if the item has to be parsed again, otherwise false.
+         */
+        public boolean uses(final Collection<String> keys) {
+            return this.name.uses(keys) || this.lore.stream().anyMatch(x -> x.uses(keys));
+        }
+    }
 }
@@ -23,6 +23,7 @@
 //
 package games.cultivate.mcmmocredits.placeholders;
 
+import games.cultivate.mcmmocredits.config.ConfigService;
 import games.cultivate.mcmmocredits.user.User;
 import games.cultivate.mcmmocredits.user.UserService;
 import jakarta.inject.Inject;
@@ -30,22 +31,42 @@ import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import org.bukkit.OfflinePlayer;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Locale;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 /**
  * Handles PlaceholderAPI expansion registration.
+ * Provides credits, redeemed, username, uuid and cached for the requesting player,
+ * and rank and {@literal top_<rank>_<name|credits>} from the leaderboard snapshot.
+ * The snapshot is kept up to date whenever PlaceholderAPI is installed, even if settings.leaderboard-enabled is false.
+ * That setting only loads the leaderboard for /credits top on servers without PlaceholderAPI.
  */
 public final class CreditsExpansion extends PlaceholderExpansion {
     private final UserService service;
+    private final Supplier<String> loading;
 
     /**
-     * Constructs the object.
+     * Constructs the object using the loading placeholder from the config.
      *
      * @param service UserService to obtain User information.
+     * @param configs ConfigService to obtain the loading placeholder.
      */
     @Inject
-    public CreditsExpansion(final UserService service) {
+    public CreditsExpansion(final UserService service, final ConfigService configs) {
+        this(service, () -> configs.mainConfig().getString("settings", "placeholder-loading"));
+    }
+
+    /**
+     * Constructs the object.
+     *
+     * @param service UserService to obtain User information.
+     * @param loading Supplier of the value returned while a user is loaded.
+     */
+    public CreditsExpansion(final UserService service, final Supplier<String> loading) {
         this.service = service;
+        this.loading = loading;
     }
 
     /**
@@ -85,22 +106,60 @@ public final class CreditsExpansion extends PlaceholderExpansion {
      */
     @Override
     public String onRequest(final OfflinePlayer player, final @NotNull String id) {
+        String placeholder = id.toLowerCase(Locale.ROOT);
+        if (placeholder.startsWith("top_")) {
+            return this.top(placeholder);
+        }
         if (player == null) {
             return "0";
         }
-        //No control over PAPI methods here, have to join() for user.
-        Optional<User> optionalUser = this.service.getUser(player.getName()).join();
-        if (optionalUser.isPresent()) {
-            User user = optionalUser.get();
-            return switch (id.toLowerCase()) {
-                case "credits" -> String.valueOf(user.credits());
-                case "redeemed" -> String.valueOf(user.redeemed());
-                case "username" -> user.username();
-                case "uuid" -> user.uuid().toString();
-                case "cached" -> String.valueOf(this.service.isUserCached(user));
-                default -> "0";
-            };
+        if (placeholder.equals("rank")) {
+            return String.valueOf(this.service.snapshot().rank(player.getUniqueId()));
+        }
+        //PAPI may call this on the main thread, so a user which is not cached is loaded in the background for the next request.
+        CompletableFuture<Optional<User>> future = this.service.getUser(player.getUniqueId());
+        if (!future.isDone() || future.isCompletedExceptionally()) {
+            return this.loading.get();
+        }
+        Optional<User> optionalUser = future.join();
+        if (optionalUser.isEmpty()) {
+            return "0";
+        }
+        User user = optionalUser.get();
+        return switch (placeholder) {
+            case "credits" -> String.valueOf(user.credits());
+            case "redeemed" -> String.valueOf(user.redeemed());
+            case "username" -> user.username();
+            case "uuid" -> user.uuid().toString();
+            case "cached" -> String.valueOf(this.service.isUserCached(user));
+            default -> "0";
+        };
+    }
+
+    /**
+     * Resolves a placeholder in the format {@literal top_<rank>_<name|credits>} from the leaderboard snapshot.
+     *
+     * @param placeholder The lowercase placeholder.
+     * @return The value, or 0 if the placeholder is invalid or the rank is not part of the snapshot.
+     */
+    private String top(final String placeholder) {
+        String[] parts = placeholder.split("_");
+        if (parts.length != 3) {
+            return "0";
+        }
+        User user;
+        try {
+            user = this.service.snapshot().top(Integer.parseInt(parts[1]));
+        } catch (NumberFormatException e) {
+            return "0";
+        }
+        if (user == null) {
+            return "0";
         }
-        return "0";
+        return switch (parts[2]) {
+            case "name" -> user.username();
+            case "credits" -> String.valueOf(user.credits());
+            default -> "0";
+        };
     }
 }
@@ -33,21 +33,34 @@ import games.cultivate.mcmmocredits.user.User;
 import games.cultivate.mcmmocredits.util.Util;
 import net.kyori.adventure.text.minimessage.tag.Tag;
 import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Represents a map of key-value pairs.
+ * Represents a map of key-value pairs. Values are formatted when they are first read.
+ * A Resolver is not thread-safe, and is meant to be built and read for a single message.
+ * It must be created, filled and rendered on one thread, and must not be stored or passed to a task on another thread.
+ * {@link games.cultivate.mcmmocredits.text.Text#send()} renders it before returning, so sending a message never publishes its Resolver.
  */
 public final class Resolver {
-    private final Map<String, String> placeholders;
+    private static final Map<String, String[]> USER_KEYS = new ConcurrentHashMap<>();
+    private String[] keys;
+    private Object[] values;
+    private int size;
+    private @Nullable TagResolver tagResolver;
 
     /**
      * Constructs the object.
      */
     public Resolver() {
-        this.placeholders = new ConcurrentHashMap<>();
+        this.keys = new String[16];
+        this.values = new Object[16];
     }
 
     /**
@@ -97,10 +110,40 @@ public final class Resolver {
      * @return The resolver.
      */
     public <T> Resolver addTag(final String key, final T value) {
-        this.placeholders.put(key, value.toString());
+        Objects.requireNonNull(value);
+        int index = this.indexOf(key);
+        if (index < 0) {
+            if (this.size == this.keys.length) {
+                this.keys = Arrays.copyOf(this.keys, this.size * 2);
+                this.values = Arrays.copyOf(this.values, this.size * 2);
+            }
+            this.keys[this.size] = key;
+            index = this.size++;
+        }
+        this.values[index] = value;
+        this.tagResolver = null;
         return this;
     }
 
+    /**
+     * Gets the value of a tag.
+     *
+     * @param key Placeholder key of the tag.
+     * @return The value, or null if the tag was not added.
+     */
+    public @Nullable String get(final String key) {
+        int index = this.indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        if (this.values[index] instanceof String value) {
+            return value;
+        }
+        String value = this.values[index].toString();
+        this.values[index] = value;
+        return value;
+    }
+
     /**
      * Adds user info to the Resolver with a specified prefix.
      *
@@ -109,7 +152,8 @@ public final class Resolver {
      * @return The resolver.
      */
     public Resolver addUser(final CommandExecutor user, final String prefix) {
-        return this.addTag(prefix, user.username()).addTag(prefix + "_uuid", user.uuid()).addTag(prefix + "_credits", user.credits()).addTag(prefix + "_redeemed", user.redeemed());
+        String[] keys = USER_KEYS.computeIfAbsent(prefix, x -> new String[]{x, x + "_uuid", x + "_credits", x + "_redeemed"});
+        return this.addTag(keys[0], user.username()).addTag(keys[1], user.uuid()).addTag(keys[2], user.credits()).addTag(keys[3], user.redeemed());
     }
 
     /**
@@ -135,15 +179,49 @@ public final class Resolver {
     }
 
     /**
-     * Converts the Resolver to a TagResolver.
+     * Gets the keys of tags in this Resolver whose value differs from their value in another Resolver.
+     *
+     * @param other The other Resolver.
+     * @return The keys of the changed tags.
+     */
+    public Set<String> changedKeys(final Resolver other) {
+        Set<String> changed = new HashSet<>();
+        for (int i = 0; i < this.size; i++) {
+            if (!Objects.equals(this.get(this.keys[i]), other.get(this.keys[i]))) {
+                changed.add(this.keys[i]);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Converts the Resolver to a TagResolver. The TagResolver is kept until another tag is added.
      *
      * @return The built TagResolver.
      */
     public TagResolver toTagResolver() {
-        TagResolver.Builder builder = TagResolver.builder();
-        for (Map.Entry<String, String> entry : this.placeholders.entrySet()) {
-            builder = builder.tag(entry.getKey(), Tag.preProcessParsed(entry.getValue()));
+        if (this.tagResolver == null) {
+            TagResolver.Builder builder = TagResolver.builder();
+            for (int i = 0; i < this.size; i++) {
+                builder = builder.tag(this.keys[i], Tag.preProcessParsed(this.get(this.keys[i])));
+            }
+            this.tagResolver = builder.build();
+        }
+        return this.tagResolver;
+    }
+
+    /**
+     * Finds the index of a tag.
+     *
+     * @param key Placeholder key of the tag.
+     * @return The index, or -1 if the tag was not added.
+     */
+    private int indexOf(final String key) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.keys[i].equals(key)) {
+                return i;
+            }
         }
-        return builder.build();
+        return -1;
     }
 }
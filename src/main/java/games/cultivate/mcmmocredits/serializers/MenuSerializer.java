@@ -52,9 +52,14 @@ public final class MenuSerializer implements TypeSerializer<RedeemMenu> {
         boolean fill = node.node("fill").getBoolean();
         boolean navigation = node.node("navigation").getBoolean();
         Map<String, Item> items = new HashMap<>();
+        Map<String, String> commands = new HashMap<>();
         for (ConfigurationNode entry : node.node("items").childrenMap().values()) {
             Item item = entry.get(Item.class);
             items.put((String) entry.key(), item);
+            String command = entry.node("command").getString();
+            if (command != null) {
+                commands.put((String) entry.key(), command);
+            }
         }
         if (!navigation) {
             items.remove("navigation").slot();
@@ -64,7 +69,7 @@ public final class MenuSerializer implements TypeSerializer<RedeemMenu> {
         if (fill) {
             IntStream.range(0, slots).filter(i -> !slotSet.contains(i)).forEach(i -> items.put("fill" + i, filler.slot(i)));
         }
-        return new RedeemMenu(items, title, slots, fill, navigation);
+        return new RedeemMenu(items, commands, title, slots, fill, navigation);
     }
 
     /**
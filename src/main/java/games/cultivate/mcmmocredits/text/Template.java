@@ -0,0 +1,160 @@
+//
+// MIT License
+//
+// Copyright (c) 2024 Cultivate Games
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+package games.cultivate.mcmmocredits.text;
+
+import games.cultivate.mcmmocredits.placeholders.Resolver;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Represents a message which is split into text and placeholder slots once, so that it can be rendered by filling in values.
+ * Values are inserted before the message is parsed, matching {@link net.kyori.adventure.text.minimessage.tag.Tag#preProcessParsed(String)}.
+ * Messages without placeholder slots are parsed once.
+ * Messages of the main configuration are compiled when it is loaded and kept by the configuration, other content is compiled where it is used.
+ */
+public final class Template {
+    private static final Pattern SLOT = Pattern.compile("<([a-z0-9_-]+)>");
+    private static final TagResolver STANDARD = TagResolver.standard();
+    private final String content;
+    private final String[] text;
+    private final String[] slots;
+    private final @Nullable Component component;
+    private final boolean external;
+
+    /**
+     * Constructs the object.
+     *
+     * @param content The message's content.
+     * @param text    Text surrounding the slots. Contains one more element than the slots.
+     * @param slots   Placeholder keys of the slots, in order.
+     */
+    private Template(final String content, final String[] text, final String[] slots) {
+        this.content = content;
+        this.text = text;
+        this.slots = slots;
+        this.component = slots.length == 0 ? MiniMessage.miniMessage().deserialize(content) : null;
+        this.external = content.indexOf('%') != -1;
+    }
+
+    /**
+     * Compiles a message into a template. Tags which are not standard MiniMessage tags are treated as placeholder slots.
+     *
+     * @param content The message's content.
+     * @return The template.
+     */
+    public static Template compile(final String content) {
+        List<String> text = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        Matcher matcher = SLOT.matcher(content);
+        int start = 0;
+        while (matcher.find()) {
+            String key = matcher.group(1);
+            if (STANDARD.has(key) || (matcher.start() > 0 && content.charAt(matcher.start() - 1) == '\\')) {
+                continue;
+            }
+            text.add(content.substring(start, matcher.start()));
+            slots.add(key);
+            start = matcher.end();
+        }
+        text.add(content.substring(start));
+        return new Template(content, text.toArray(String[]::new), slots.toArray(String[]::new));
+    }
+
+    /**
+     * Gets the content of the template.
+     *
+     * @return The content.
+     */
+    public String content() {
+        return this.content;
+    }
+
+    /**
+     * Checks if the template may contain PlaceholderAPI placeholders, which have to be applied before parsing.
+     *
+     * @return True if the template contains a percent sign, otherwise false.
+     */
+    public boolean hasExternalPlaceholders() {
+        return this.external;
+    }
+
+    /**
+     * Checks if rendering the template may be affected by a change of the specified placeholders.
+     *
+     * @param keys Placeholder keys which changed.
+     * @return True if the template has a slot for any of the keys, or may contain PlaceholderAPI placeholders.
+     */
+    public boolean uses(final Collection<String> keys) {
+        if (this.external) {
+            return true;
+        }
+        for (String slot : this.slots) {
+            if (keys.contains(slot)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fills the placeholder slots with values from a resolver. Slots without a value keep their tag.
+     *
+     * @param resolver The resolver.
+     * @return The filled content, which can be parsed by MiniMessage.
+     */
+    public String fill(final Resolver resolver) {
+        if (this.slots.length == 0) {
+            return this.content;
+        }
+        StringBuilder builder = new StringBuilder(this.content.length() + 16 * this.slots.length);
+        for (int i = 0; i < this.slots.length; i++) {
+            builder.append(this.text[i]);
+            String value = resolver.get(this.slots[i]);
+            if (value == null) {
+                builder.append('<').append(this.slots[i]).append('>');
+            } else {
+                builder.append(value);
+            }
+        }
+        return builder.append(this.text[this.slots.length]).toString();
+    }
+
+    /**
+     * Renders the template using values from a resolver.
+     *
+     * @param resolver The resolver.
+     * @return The rendered Component.
+     */
+    public Component render(final Resolver resolver) {
+        return this.component != null ? this.component : MiniMessage.miniMessage().deserialize(this.fill(resolver));
+    }
+}
@@ -42,23 +42,23 @@ public final class Text {
     private static final Component NO_ITALICS = Component.empty().decoration(TextDecoration.ITALIC, false);
     private final Audience audience;
     private final Resolver resolver;
-    private String content;
+    private final Template template;
 
     /**
      * Constructs the object.
      *
      * @param audience The message's target.
-     * @param content  The message's content.
+     * @param template The message's compiled content.
      * @param resolver The message's resolver.
      */
-    private Text(final Audience audience, final String content, final Resolver resolver) {
+    private Text(final Audience audience, final Template template, final Resolver resolver) {
         this.audience = audience;
-        this.content = content;
+        this.template = template;
         this.resolver = resolver;
     }
 
     /**
-     * Constructs the object.
+     * Constructs the object. The content is compiled for this Text only.
      *
      * @param audience The message's target.
      * @param content  The message's content.
@@ -66,7 +66,31 @@ public final class Text {
      * @return the Text.
      */
     public static Text fromString(final Audience audience, final String content, final Resolver resolver) {
-        return new Text(audience, content, resolver);
+        return new Text(audience, Template.compile(content), resolver);
+    }
+
+    /**
+     * Constructs the object using a compiled message.
+     *
+     * @param audience The message's target.
+     * @param template The message's compiled content.
+     * @param resolver The message's resolver.
+     * @return the Text.
+     */
+    public static Text fromTemplate(final Audience audience, final Template template, final Resolver resolver) {
+        return new Text(audience, template, resolver);
+    }
+
+    /**
+     * Constructs the object using a compiled message and a CommandExecutor.
+     *
+     * @param executor The message's target as a CommandExecutor.
+     * @param template The message's compiled content.
+     * @param resolver The message's resolver.
+     * @return the Text.
+     */
+    public static Text fromTemplate(final CommandExecutor executor, final Template template, final Resolver resolver) {
+        return Text.fromTemplate(executor.sender(), template, addMessageViewer(executor, resolver));
     }
 
     /**
@@ -92,6 +116,16 @@ public final class Text {
         return Text.fromString(executor, content, Resolver.ofUser(executor));
     }
 
+    /**
+     * Creates the Resolver which {@link #forOneUser(CommandExecutor, String)} renders with, including the viewer tags.
+     *
+     * @param executor The message's target as a CommandExecutor.
+     * @return The Resolver.
+     */
+    public static Resolver forOneUser(final CommandExecutor executor) {
+        return addMessageViewer(executor, Resolver.ofUser(executor));
+    }
+
     /**
      * Constructs the object using a CommandExecutor, and a customized Resolver.
      *
@@ -117,18 +151,19 @@ public final class Text {
 
     /**
      * Converts the object to a Component. The object is stripped of leading italics and parsed for placeholders.
+     * The content is rendered from its compiled template, and only passed to PlaceholderAPI if it may contain its placeholders.
      *
      * @return The converted Component.
      */
     public Component toComponent() {
-        if (this.audience instanceof Player player && Bukkit.getPluginManager().isPluginEnabled("PlaceholderAPI")) {
-            this.content = PlaceholderAPI.setPlaceholders(player, this.content);
+        if (this.template.hasExternalPlaceholders() && this.audience instanceof Player player && Bukkit.getPluginManager().isPluginEnabled("PlaceholderAPI")) {
+            return NO_ITALICS.append(MiniMessage.miniMessage().deserialize(PlaceholderAPI.setPlaceholders(player, this.template.fill(this.resolver))));
         }
-        return NO_ITALICS.append(MiniMessage.miniMessage().deserialize(this.content, this.resolver.toTagResolver()));
+        return NO_ITALICS.append(this.template.render(this.resolver));
     }
 
     /**
-     * Sends the Text to the audience.
+     * Sends the Text to the audience. The Text is rendered on the calling thread, before this method returns.
      */
     public void send() {
         this.audience.sendMessage(this.toComponent());
@@ -27,7 +27,10 @@ import games.cultivate.mcmmocredits.user.CommandExecutor;
 import games.cultivate.mcmmocredits.user.User;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Represents a transaction in which an amount is added to a user's balance.
@@ -61,4 +64,12 @@ public record AddTransaction(CommandExecutor executor, List<User> targets, int a
     public TransactionType type() {
         return this.targets.size() > 1 ? TransactionType.ADDALL : TransactionType.ADD;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<UUID, Integer> deltas() {
+        return this.targets.stream().collect(Collectors.toMap(User::uuid, x -> this.amount, Integer::sum));
+    }
 }
@@ -0,0 +1,214 @@
+//
+// MIT License
+//
+// Copyright (c) 2024 Cultivate Games
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+package games.cultivate.mcmmocredits.transaction;
+
+import games.cultivate.mcmmocredits.MCMMOCredits;
+import games.cultivate.mcmmocredits.user.User;
+import games.cultivate.mcmmocredits.user.UserService;
+import jakarta.inject.Inject;
+import org.bukkit.Bukkit;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Executes transactions which target many users at once, such as {@literal /credits addall}.
+ * Targets are validated and written in chunks, and transactions still run in order with other transactions for the same users.
+ * Chunks are committed independently, so a bulk transaction is not atomic: when a chunk fails, the other chunks stay written.
+ */
+public final class BulkTransactionEngine {
+    static final int CHUNK_SIZE = 250;
+    private final TransactionEngine engine;
+    private final UserService service;
+    private final Executor executor;
+    private final Logger logger;
+
+    /**
+     * Constructs the object. Chunks are processed by the server's async scheduler.
+     *
+     * @param engine  TransactionEngine, used to order transactions for the same users.
+     * @param service UserService, used to refresh and update users.
+     * @param plugin  The plugin, used to schedule chunks and to log.
+     */
+    @Inject
+    public BulkTransactionEngine(final TransactionEngine engine, final UserService service, final MCMMOCredits plugin) {
+        this(engine, service, x -> Bukkit.getAsyncScheduler().runNow(plugin, y -> x.run()), plugin.getLogger());
+    }
+
+    /**
+     * Constructs the object.
+     *
+     * @param engine   TransactionEngine, used to order transactions for the same users.
+     * @param service  UserService, used to refresh and update users.
+     * @param executor Executor which validates chunks and sends feedback.
+     * @param logger   Logger for timings and failed chunks.
+     */
+    public BulkTransactionEngine(final TransactionEngine engine, final UserService service, final Executor executor, final Logger logger) {
+        this.engine = engine;
+        this.service = service;
+        this.executor = executor;
+        this.logger = logger;
+    }
+
+    /**
+     * Executes a transaction after all earlier transactions for the same users are complete.
+     * Targets are validated in parallel chunks, and the balances of each chunk are written with a single statement.
+     * Chunks are committed independently and the transaction is not atomic. Users in chunks which fail to write are left out of the result and logged, while other chunks stay written.
+     *
+     * @param transaction The transaction.
+     * @param failures    Consumer of each user which failed validation, and the config key of the failure message.
+     * @return The result of the transaction, or an empty optional if no target was updated.
+     */
+    public CompletableFuture<Optional<TransactionResult>> execute(final Transaction transaction, final BiConsumer<User, String> failures) {
+        return this.engine.submit(this.engine.keys(transaction), () -> this.engine.refresh(transaction).thenCompose(tr -> {
+            long start = System.nanoTime();
+            return this.validate(tr).thenCompose(reasons -> {
+                List<User> accepted = new ArrayList<>(reasons.length);
+                for (int i = 0; i < reasons.length; i++) {
+                    User user = tr.targets().get(i);
+                    if (reasons[i] == null) {
+                        accepted.add(user);
+                    } else {
+                        failures.accept(user, reasons[i]);
+                    }
+                }
+                long validated = System.nanoTime();
+                if (accepted.isEmpty()) {
+                    return CompletableFuture.completedFuture(Optional.empty());
+                }
+                TransactionResult result = TransactionEngine.rebuild(tr, tr.executor(), accepted).execute();
+                return this.write(result).thenApply(x -> {
+                    long end = System.nanoTime();
+                    this.logger.log(Level.FINE, () -> String.format("%s for %d users: %d rejected in %.1fms, %d written in %.1fms.", tr.type(), reasons.length, reasons.length - accepted.size(), (validated - start) / 1000000.0, x.targets().size(), (end - validated) / 1000000.0));
+                    return x.targets().isEmpty() ? Optional.empty() : Optional.of(x);
+                });
+            });
+        }));
+    }
+
+    /**
+     * Runs an action for each user in parallel chunks, off the calling thread. Used to send feedback to many users.
+     *
+     * @param users  The users.
+     * @param action The action.
+     * @return CompletableFuture holding status of the task.
+     */
+    public CompletableFuture<Void> forEachChunk(final List<User> users, final Consumer<User> action) {
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int i = 0; i < users.size(); i += CHUNK_SIZE) {
+            List<User> chunk = users.subList(i, Math.min(i + CHUNK_SIZE, users.size()));
+            chunks.add(CompletableFuture.runAsync(() -> chunk.forEach(action), this.executor));
+        }
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Validates every target of a transaction in parallel chunks.
+     *
+     * @param transaction The transaction.
+     * @return The config key of the failure message of each target, or null for each target which passed validation.
+     */
+    private CompletableFuture<String[]> validate(final Transaction transaction) {
+        List<User> targets = transaction.targets();
+        String[] reasons = new String[targets.size()];
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int i = 0; i < targets.size(); i += CHUNK_SIZE) {
+            int from = i;
+            int to = Math.min(i + CHUNK_SIZE, targets.size());
+            chunks.add(CompletableFuture.runAsync(() -> {
+                for (int j = from; j < to; j++) {
+                    reasons[j] = transaction.validate(targets.get(j)).orElse(null);
+                }
+            }, this.executor));
+        }
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).thenApply(x -> reasons);
+    }
+
+    /**
+     * Writes the targets of a transaction result in chunks, and logs progress as chunks complete.
+     * Relative changes are written as one update per chunk, other changes as one batch per chunk.
+     *
+     * @param result The transaction result.
+     * @return A copy of the result which only contains the targets that were written.
+     */
+    private CompletableFuture<TransactionResult> write(final TransactionResult result) {
+        Transaction transaction = result.transaction();
+        Map<UUID, Integer> deltas = transaction.deltas();
+        List<User> targets = result.targets();
+        AtomicInteger done = new AtomicInteger();
+        List<CompletableFuture<List<User>>> chunks = new ArrayList<>();
+        for (int i = 0; i < targets.size(); i += CHUNK_SIZE) {
+            List<User> chunk = targets.subList(i, Math.min(i + CHUNK_SIZE, targets.size()));
+            CompletableFuture<List<User>> future = deltas.isEmpty() ? this.service.storeUsers(chunk).thenApply(x -> x ? chunk : List.of()) : this.writeDeltas(chunk, deltas);
+            chunks.add(future.thenApply(x -> {
+                if (x.size() < chunk.size()) {
+                    this.logger.warning(String.format("%s: %d of %d users in a chunk could not be written.", transaction.type(), chunk.size() - x.size(), chunk.size()));
+                }
+                if (!x.isEmpty() && targets.size() > CHUNK_SIZE) {
+                    this.logger.info(String.format("%s: %d/%d users written.", transaction.type(), done.addAndGet(x.size()), targets.size()));
+                }
+                return x;
+            }));
+        }
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).thenApply(x -> {
+            List<User> written = new ArrayList<>(targets.size());
+            chunks.forEach(y -> written.addAll(y.join()));
+            return new TransactionResult(transaction, result.executor(), written);
+        });
+    }
+
+    /**
+     * Writes relative changes for a chunk of users, with one update for each distinct change.
+     * Each update commits on its own, so the users of updates which succeeded are returned even if another update failed.
+     *
+     * @param chunk  The users.
+     * @param deltas Map of UUIDs and credit changes.
+     * @return The updated users.
+     */
+    private CompletableFuture<List<User>> writeDeltas(final List<User> chunk, final Map<UUID, Integer> deltas) {
+        Map<Integer, List<UUID>> groups = new LinkedHashMap<>();
+        chunk.forEach(x -> groups.computeIfAbsent(deltas.get(x.uuid()), k -> new ArrayList<>()).add(x.uuid()));
+        List<CompletableFuture<List<User>>> updates = new ArrayList<>();
+        groups.forEach((k, v) -> updates.add(this.service.addCredits(v, k).exceptionally(e -> {
+            this.logger.log(Level.SEVERE, String.format("Failed to change credits by %d for %d users!", k, v.size()), e);
+            return List.of();
+        })));
+        return CompletableFuture.allOf(updates.toArray(new CompletableFuture[0])).thenApply(x -> {
+            List<User> users = new ArrayList<>(chunk.size());
+            updates.forEach(y -> users.addAll(y.join()));
+            return users;
+        });
+    }
+}
@@ -25,9 +25,11 @@ package games.cultivate.mcmmocredits.transaction;
 
 import games.cultivate.mcmmocredits.user.User;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Represents a transaction in which an amount is added to a user's balance and taken from another user's balance.
@@ -85,4 +87,15 @@ public record PayTransaction(User executor, List<User> targets, int amount) impl
         User user = this.targets.get(0);
         return Map.of(user, this.validate(user));
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<UUID, Integer> deltas() {
+        Map<UUID, Integer> deltas = new HashMap<>();
+        deltas.merge(this.executor.uuid(), -this.amount, Integer::sum);
+        deltas.merge(this.targets.get(0).uuid(), this.amount, Integer::sum);
+        return deltas;
+    }
 }
@@ -27,7 +27,10 @@ import games.cultivate.mcmmocredits.user.CommandExecutor;
 import games.cultivate.mcmmocredits.user.User;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Represents a transaction in which an amount is removed from a user's balance.
@@ -61,4 +64,12 @@ public record TakeTransaction(CommandExecutor executor, List<User> targets, int
     public TransactionType type() {
         return this.targets.size() > 1 ? TransactionType.TAKEALL : TransactionType.TAKE;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<UUID, Integer> deltas() {
+        return this.targets.stream().collect(Collectors.toMap(User::uuid, x -> -this.amount, Integer::sum));
+    }
 }
@@ -29,6 +29,7 @@ import games.cultivate.mcmmocredits.user.User;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -103,6 +104,16 @@ public interface Transaction {
      */
     TransactionType type();
 
+    /**
+     * Gets the relative changes to credit balances made by the transaction, keyed by UUID.
+     * Transactions with changes are applied as atomic updates, instead of overwriting balances.
+     *
+     * @return Map of UUIDs and credit changes, or an empty map if the transaction overwrites balances.
+     */
+    default Map<UUID, Integer> deltas() {
+        return Map.of();
+    }
+
     /**
      * Returns if the executor and target are the same entity.
      *
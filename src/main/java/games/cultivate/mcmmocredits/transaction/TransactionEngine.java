@@ -0,0 +1,198 @@
+//
+// MIT License
+//
+// Copyright (c) 2024 Cultivate Games
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+package games.cultivate.mcmmocredits.transaction;
+
+import games.cultivate.mcmmocredits.user.CommandExecutor;
+import games.cultivate.mcmmocredits.user.User;
+import games.cultivate.mcmmocredits.user.UserService;
+import jakarta.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Executes transactions in order for each user.
+ * A transaction waits for earlier transactions which share a user, while transactions for different users run in parallel.
+ */
+public final class TransactionEngine {
+    private final UserService service;
+    private final Map<UUID, CompletableFuture<Void>> tails;
+
+    /**
+     * Constructs the object.
+     *
+     * @param service UserService, used to refresh and update users.
+     */
+    @Inject
+    public TransactionEngine(final UserService service) {
+        this.service = service;
+        this.tails = new HashMap<>();
+    }
+
+    /**
+     * Executes a transaction after all earlier transactions for the same users are complete.
+     * Users are refreshed from the UserService before validation, so each transaction sees the result of the last.
+     *
+     * @param transaction The transaction.
+     * @param failures    Consumer of each user which failed validation, and the config key of the failure message.
+     * @return The applied result of the transaction, or an empty optional if every target failed validation or nothing was written.
+     */
+    public CompletableFuture<Optional<TransactionResult>> execute(final Transaction transaction, final BiConsumer<User, String> failures) {
+        return this.submit(this.keys(transaction), () -> this.refresh(transaction).thenCompose(tr -> {
+            tr.validateTransaction().forEach((k, v) -> v.ifPresent(y -> {
+                failures.accept(k, y);
+                tr.targets().remove(k);
+            }));
+            if (tr.targets().isEmpty()) {
+                return CompletableFuture.completedFuture(Optional.empty());
+            }
+            return this.service.processTransaction(tr.execute());
+        }));
+    }
+
+    /**
+     * Sets the credit balance of a user after all earlier transactions for the user are complete.
+     * Writes made outside the engine could land between the validation and write of a transaction, so all balance changes go through here.
+     *
+     * @param uuid   The UUID of the user.
+     * @param amount The new amount of credits.
+     * @return True if the balance was set, otherwise false.
+     */
+    public CompletableFuture<Boolean> setCredits(final UUID uuid, final int amount) {
+        return this.submit(Set.of(uuid), () -> this.service.setCredits(uuid, amount));
+    }
+
+    /**
+     * Atomically adds credits to the balance of a user after all earlier transactions for the user are complete.
+     * Transactions such as REDEEM write balances computed from a refreshed user, so an add outside the engine could be overwritten.
+     *
+     * @param uuid   The UUID of the user.
+     * @param amount The amount of credits to add. Negative amounts take credits.
+     * @return True if the credits were added, otherwise false.
+     */
+    public CompletableFuture<Boolean> addCredits(final UUID uuid, final int amount) {
+        return this.submit(Set.of(uuid), () -> this.service.addCredits(uuid, amount));
+    }
+
+    /**
+     * Runs a task after all earlier tasks for any of the provided keys are complete.
+     * The task runs even if an earlier task failed.
+     *
+     * @param keys The UUIDs of the users affected by the task.
+     * @param task The task.
+     * @param <T>  The type of the result.
+     * @return The result of the task.
+     */
+    <T> CompletableFuture<T> submit(final Collection<UUID> keys, final Supplier<CompletableFuture<T>> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        CompletableFuture<Void> ready;
+        synchronized (this.tails) {
+            ready = CompletableFuture.allOf(keys.stream().map(this.tails::get).filter(Objects::nonNull).toArray(CompletableFuture[]::new));
+            CompletableFuture<Void> tail = result.handle((x, t) -> null);
+            keys.forEach(x -> this.tails.put(x, tail));
+            tail.thenRun(() -> {
+                synchronized (this.tails) {
+                    keys.forEach(x -> this.tails.remove(x, tail));
+                }
+            });
+        }
+        ready.handle((x, t) -> null).thenCompose(x -> task.get()).whenComplete((x, t) -> {
+            if (t != null) {
+                result.completeExceptionally(t);
+                return;
+            }
+            result.complete(x);
+        });
+        return result;
+    }
+
+    /**
+     * Gets the UUIDs of all users affected by a transaction.
+     *
+     * @param transaction The transaction.
+     * @return The UUIDs.
+     */
+    Set<UUID> keys(final Transaction transaction) {
+        Set<UUID> keys = new LinkedHashSet<>();
+        if (transaction.executor().isPlayer()) {
+            keys.add(transaction.executor().toUser().uuid());
+        }
+        transaction.targets().forEach(x -> keys.add(x.uuid()));
+        return keys;
+    }
+
+    /**
+     * Rebuilds a transaction with the latest state of its users.
+     *
+     * @param transaction The transaction.
+     * @return The rebuilt transaction.
+     */
+    CompletableFuture<Transaction> refresh(final Transaction transaction) {
+        CompletableFuture<CommandExecutor> executor = transaction.executor().isPlayer()
+                ? this.refresh(transaction.executor().toUser()).thenApply(x -> x)
+                : CompletableFuture.completedFuture(transaction.executor());
+        List<CompletableFuture<User>> targets = transaction.targets().stream().map(this::refresh).toList();
+        return executor.thenCombine(CompletableFuture.allOf(targets.toArray(new CompletableFuture[0])), (e, v) -> {
+            List<User> users = new ArrayList<>(targets.stream().map(CompletableFuture::join).toList());
+            return rebuild(transaction, e, users);
+        });
+    }
+
+    /**
+     * Builds a copy of a transaction with a different executor and targets.
+     *
+     * @param transaction The transaction.
+     * @param executor    The executor of the copy.
+     * @param targets     The targets of the copy.
+     * @return The copy.
+     */
+    static Transaction rebuild(final Transaction transaction, final CommandExecutor executor, final List<User> targets) {
+        TransactionBuilder builder = Transaction.builder(executor, transaction.type(), transaction.amount()).targets(targets);
+        if (transaction instanceof RedeemTransaction redeem) {
+            builder.skill(redeem.skill());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Gets the latest state of a user, or the provided user if it no longer exists.
+     *
+     * @param user The user.
+     * @return The latest state of the user.
+     */
+    private CompletableFuture<User> refresh(final User user) {
+        return this.service.getUser(user.uuid()).thenApply(x -> x.orElse(user));
+    }
+}
@@ -78,6 +78,15 @@ public enum TransactionType {
         return TransactionType.valueOf(args.getRawInput().get(i).toUpperCase());
     }
 
+    /**
+     * Gets if the transaction type targets many users at once.
+     *
+     * @return True if the type is one of the "all" types, otherwise false.
+     */
+    public boolean isBulk() {
+        return this == ADDALL || this == TAKEALL || this == SETALL || this == REDEEMALL;
+    }
+
     /**
      * Gets the config key for feedback sent to the executor during the transaction.
      *
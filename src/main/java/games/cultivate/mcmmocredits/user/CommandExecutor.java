@@ -24,6 +24,7 @@
 package games.cultivate.mcmmocredits.user;
 
 import games.cultivate.mcmmocredits.placeholders.Resolver;
+import games.cultivate.mcmmocredits.text.Template;
 import games.cultivate.mcmmocredits.text.Text;
 import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
@@ -125,4 +126,33 @@ public interface CommandExecutor {
     default void sendText(final String message, final UnaryOperator<Resolver> operator) {
         Text.forOneUser(this, message, operator).send();
     }
+
+    /**
+     * Sends provided compiled message that is parsed with provided resolver.
+     *
+     * @param message  The message to send.
+     * @param resolver The resolver to parse it with.
+     */
+    default void sendText(final Template message, final Resolver resolver) {
+        Text.fromTemplate(this, message, resolver).send();
+    }
+
+    /**
+     * Sends provided compiled message that is parsed with auto-generated resolver.
+     *
+     * @param message The message to send.
+     */
+    default void sendText(final Template message) {
+        Text.fromTemplate(this, message, Resolver.ofUser(this)).send();
+    }
+
+    /**
+     * Sends provided compiled message that is parsed with customized resolver.
+     *
+     * @param message  The message to send.
+     * @param operator Function to apply to resolver.
+     */
+    default void sendText(final Template message, final UnaryOperator<Resolver> operator) {
+        Text.fromTemplate(this, message, operator.apply(Resolver.ofUser(this))).send();
+    }
 }
@@ -0,0 +1,475 @@
+//
+// MIT License
+//
+// Copyright (c) 2024 Cultivate Games
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+package games.cultivate.mcmmocredits.user;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory leaderboard of all users, ordered by credits and then by the order they were loaded in.
+ * Users are loaded in the order of their database id, so ties are broken the same way as the database leaderboard queries.
+ * Users which are added after a load are placed after all loaded users with the same credits.
+ * Backed by a treap where each node knows the size of its subtree, so that ranks and pages are found in O(log n).
+ * Updates are ignored until the leaderboard is loaded, so a partially loaded leaderboard is never served.
+ * Users are loaded into a separate tree in chunks, which replaces the current tree when the load finishes.
+ */
+public final class Leaderboard {
+    private Map<UUID, Node> nodes = new HashMap<>();
+    private @Nullable Node root;
+    private @Nullable Map<UUID, User> pending;
+    private @Nullable Map<UUID, UnaryOperator<User>> writes;
+    private @Nullable Leaderboard staging;
+    private long sequence;
+    private boolean loaded;
+    private volatile boolean active;
+
+    /**
+     * Checks if the leaderboard has been loaded.
+     *
+     * @return True if the leaderboard can be read, false otherwise.
+     */
+    public synchronized boolean loaded() {
+        return this.loaded;
+    }
+
+    /**
+     * Gets the amount of users on the leaderboard.
+     *
+     * @return The amount of users.
+     */
+    public synchronized int size() {
+        return size(this.root);
+    }
+
+    /**
+     * Adds a user to the leaderboard, replacing any user with the same UUID.
+     * Returns without locking if the leaderboard was never loaded.
+     *
+     * @param user The user.
+     */
+    public void update(final User user) {
+        if (!this.active) {
+            return;
+        }
+        synchronized (this) {
+            if (this.pending != null) {
+                this.pending.put(user.uuid(), user);
+            }
+            if (this.writes != null) {
+                this.writes.remove(user.uuid());
+            }
+            if (this.loaded) {
+                this.put(user);
+            }
+        }
+    }
+
+    /**
+     * Applies a write to a user on the leaderboard. Users which are not on the leaderboard are ignored.
+     * While a load is running, writes to users which are not on the leaderboard yet are kept, and applied to the loaded user when the load finishes.
+     * The loaded user may already contain the write, so writes must set values rather than change them relatively.
+     * Returns without locking if the leaderboard was never loaded.
+     *
+     * @param uuid   The UUID of the user.
+     * @param update Function which applies the write to the user.
+     */
+    public void update(final UUID uuid, final UnaryOperator<User> update) {
+        if (!this.active) {
+            return;
+        }
+        synchronized (this) {
+            User pendingUser = this.pending == null ? null : this.pending.get(uuid);
+            Node node = this.nodes.get(uuid);
+            if (pendingUser != null) {
+                this.update(update.apply(pendingUser));
+            } else if (node != null) {
+                this.update(update.apply(node.user));
+            } else if (this.writes != null) {
+                this.writes.merge(uuid, update, (a, b) -> x -> b.apply(a.apply(x)));
+            }
+        }
+    }
+
+    /**
+     * Gets the rank of a user with the specified UUID.
+     *
+     * @param uuid The UUID of the user.
+     * @return The rank of the user starting at 1, or 0 if the user is not on the leaderboard.
+     */
+    public synchronized int rank(final UUID uuid) {
+        Node node = this.nodes.get(uuid);
+        return node == null ? 0 : this.countBefore(node) + 1;
+    }
+
+    /**
+     * Gets a range of users from the leaderboard.
+     *
+     * @param limit  The max amount of users to get.
+     * @param offset The amount of users to skip.
+     * @return Users within the range, ordered by rank.
+     */
+    public synchronized List<User> range(final int limit, final int offset) {
+        List<User> users = new ArrayList<>(Math.max(0, Math.min(limit, size(this.root) - offset)));
+        for (int i = offset; i < offset + limit && i < size(this.root); i++) {
+            users.add(this.select(i));
+        }
+        return users;
+    }
+
+    /**
+     * Creates an immutable snapshot of the top of the leaderboard, and the ranks of the specified users.
+     *
+     * @param size  The amount of top users to include.
+     * @param uuids UUIDs of users whose ranks are included.
+     * @return The snapshot.
+     */
+    public synchronized Snapshot snapshot(final int size, final Collection<UUID> uuids) {
+        List<User> top = this.range(size, 0);
+        Map<UUID, Integer> ranks = new HashMap<>();
+        for (int i = 0; i < top.size(); i++) {
+            ranks.put(top.get(i).uuid(), i + 1);
+        }
+        for (UUID uuid : uuids) {
+            int rank = this.rank(uuid);
+            if (rank > 0) {
+                ranks.put(uuid, rank);
+            }
+        }
+        return new Snapshot(top, ranks);
+    }
+
+    /**
+     * Starts loading the leaderboard. Updates made until {@link #finishLoad()} are kept,
+     * so they can be applied on top of the loaded users.
+     */
+    public synchronized void startLoad() {
+        this.pending = new HashMap<>();
+        this.writes = new HashMap<>();
+        this.staging = new Leaderboard();
+        this.active = true;
+    }
+
+    /**
+     * Adds a chunk of loaded users to the leaderboard which is being loaded. The current leaderboard is not changed.
+     * Users must be loaded in the order of their database id, since ties are ranked in load order.
+     *
+     * @param users Users, as loaded from the database.
+     */
+    public synchronized void load(final Collection<User> users) {
+        if (this.staging != null) {
+            users.forEach(this.staging::put);
+        }
+    }
+
+    /**
+     * Replaces the leaderboard with the loaded users, and applies updates made while the users were loaded.
+     */
+    public synchronized void finishLoad() {
+        if (this.staging == null) {
+            return;
+        }
+        this.nodes = this.staging.nodes;
+        this.root = this.staging.root;
+        this.sequence = this.staging.sequence;
+        if (this.writes != null) {
+            this.writes.forEach((k, v) -> {
+                Node node = this.nodes.get(k);
+                if (node != null) {
+                    this.put(v.apply(node.user));
+                }
+            });
+        }
+        if (this.pending != null) {
+            this.pending.values().forEach(this::put);
+        }
+        this.staging = null;
+        this.pending = null;
+        this.writes = null;
+        this.loaded = true;
+    }
+
+    /**
+     * Stops loading the leaderboard after a failed load. The current leaderboard is kept.
+     */
+    public synchronized void cancelLoad() {
+        this.staging = null;
+        this.pending = null;
+        this.writes = null;
+    }
+
+    /**
+     * Inserts a user, removing any node of the same UUID first.
+     * The user keeps its position among ties, and new users are placed after all earlier users.
+     *
+     * @param user The user.
+     */
+    private void put(final User user) {
+        Node old = this.nodes.get(user.uuid());
+        if (old != null) {
+            this.root = remove(this.root, old);
+        }
+        Node node = new Node(user, old != null ? old.order : this.sequence++);
+        this.nodes.put(user.uuid(), node);
+        this.root = insert(this.root, node);
+    }
+
+    /**
+     * Counts users which are ranked before the specified node.
+     *
+     * @param target The node.
+     * @return The amount of users.
+     */
+    private int countBefore(final Node target) {
+        int count = 0;
+        Node node = this.root;
+        while (node != null) {
+            if (compare(target, node) > 0) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Finds the user at the specified index.
+     *
+     * @param index The index, starting at 0. Must be less than the size of the leaderboard.
+     * @return The user.
+     */
+    private User select(final int index) {
+        Node node = this.root;
+        int remaining = index;
+        while (node != null) {
+            int left = size(node.left);
+            if (remaining < left) {
+                node = node.left;
+            } else if (remaining == left) {
+                return node.user;
+            } else {
+                remaining -= left + 1;
+                node = node.right;
+            }
+        }
+        throw new IndexOutOfBoundsException(index);
+    }
+
+    /**
+     * Inserts a node into a tree.
+     *
+     * @param tree The tree.
+     * @param node The node to insert.
+     * @return The new root of the tree.
+     */
+    private static Node insert(final @Nullable Node tree, final Node node) {
+        if (tree == null) {
+            return node;
+        }
+        if (node.priority > tree.priority) {
+            Node[] split = split(tree, node);
+            node.left = split[0];
+            node.right = split[1];
+            return node.resize();
+        }
+        if (compare(node, tree) < 0) {
+            tree.left = insert(tree.left, node);
+        } else {
+            tree.right = insert(tree.right, node);
+        }
+        return tree.resize();
+    }
+
+    /**
+     * Removes a node from a tree.
+     *
+     * @param tree The tree.
+     * @param node The node.
+     * @return The new root of the tree.
+     */
+    private static @Nullable Node remove(final @Nullable Node tree, final Node node) {
+        if (tree == null) {
+            return null;
+        }
+        int result = compare(node, tree);
+        if (result == 0) {
+            return merge(tree.left, tree.right);
+        }
+        if (result < 0) {
+            tree.left = remove(tree.left, node);
+        } else {
+            tree.right = remove(tree.right, node);
+        }
+        return tree.resize();
+    }
+
+    /**
+     * Splits a tree into users ranked before the specified node, and all other users.
+     *
+     * @param tree The tree.
+     * @param node The node to split at.
+     * @return Both trees, either may be null.
+     */
+    private static Node[] split(final @Nullable Node tree, final Node node) {
+        if (tree == null) {
+            return new Node[2];
+        }
+        if (compare(tree, node) < 0) {
+            Node[] split = split(tree.right, node);
+            tree.right = split[0];
+            split[0] = tree.resize();
+            return split;
+        }
+        Node[] split = split(tree.left, node);
+        tree.left = split[1];
+        split[1] = tree.resize();
+        return split;
+    }
+
+    /**
+     * Merges two trees, where all users of the first tree are ranked before all users of the second tree.
+     *
+     * @param first  The first tree.
+     * @param second The second tree.
+     * @return The root of the merged tree.
+     */
+    private static @Nullable Node merge(final @Nullable Node first, final @Nullable Node second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        if (first.priority > second.priority) {
+            first.right = merge(first.right, second);
+            return first.resize();
+        }
+        second.left = merge(first, second.left);
+        return second.resize();
+    }
+
+    /**
+     * Gets the size of a tree.
+     *
+     * @param node The root of the tree.
+     * @return The amount of nodes in the tree.
+     */
+    private static int size(final @Nullable Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * Compares nodes by rank. Users with more credits are ranked first, and ties are ranked in the order the users were added.
+     *
+     * @param first  The first node.
+     * @param second The second node.
+     * @return A negative number if the first node is ranked first, a positive number if the second node is ranked first, 0 if they are the same.
+     */
+    private static int compare(final Node first, final Node second) {
+        int result = Integer.compare(second.user.credits(), first.user.credits());
+        return result != 0 ? result : Long.compare(first.order, second.order);
+    }
+
+    /**
+     * Immutable view of part of the leaderboard, which can be read without locking.
+     *
+     * @param top   Top users, ordered by rank.
+     * @param ranks Ranks of the top users and any other included users, starting at 1.
+     */
+    public record Snapshot(List<User> top, Map<UUID, Integer> ranks) {
+        /**
+         * Snapshot of an empty leaderboard.
+         */
+        public static final Snapshot EMPTY = new Snapshot(List.of(), Map.of());
+
+        /**
+         * Constructs the object.
+         *
+         * @param top   Top users, ordered by rank.
+         * @param ranks Ranks of the top users and any other included users, starting at 1.
+         */
+        public Snapshot {
+            top = List.copyOf(top);
+            ranks = Map.copyOf(ranks);
+        }
+
+        /**
+         * Gets the user at the specified rank.
+         *
+         * @param rank The rank, starting at 1.
+         * @return The user, or null if the rank is not part of the snapshot.
+         */
+        public @Nullable User top(final int rank) {
+            return rank > 0 && rank <= this.top.size() ? this.top.get(rank - 1) : null;
+        }
+
+        /**
+         * Gets the rank of a user with the specified UUID.
+         *
+         * @param uuid The UUID of the user.
+         * @return The rank starting at 1, or 0 if the user is not part of the snapshot.
+         */
+        public int rank(final UUID uuid) {
+            return this.ranks.getOrDefault(uuid, 0);
+        }
+    }
+
+    /**
+     * Node of the treap.
+     */
+    private static final class Node {
+        private final User user;
+        private final long order;
+        private final int priority;
+        private @Nullable Node left;
+        private @Nullable Node right;
+        private int size;
+
+        private Node(final User user, final long order) {
+            this.user = user;
+            this.order = order;
+            this.priority = ThreadLocalRandom.current().nextInt();
+            this.size = 1;
+        }
+
+        /**
+         * Recalculates the size of the subtree after its children changed.
+         *
+         * @return The node.
+         */
+        private Node resize() {
+            this.size = size(this.left) + size(this.right) + 1;
+            return this;
+        }
+    }
+}
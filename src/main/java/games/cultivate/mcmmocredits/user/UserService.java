@@ -25,39 +25,128 @@ package games.cultivate.mcmmocredits.user;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import games.cultivate.mcmmocredits.config.ConfigService;
 import games.cultivate.mcmmocredits.database.AbstractDatabase;
+import games.cultivate.mcmmocredits.database.LeaderboardPage;
+import games.cultivate.mcmmocredits.database.LoginResult;
 import games.cultivate.mcmmocredits.transaction.TransactionResult;
 import games.cultivate.mcmmocredits.util.MojangUtil;
 import jakarta.inject.Inject;
 import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import java.util.logging.Logger;
 
 /**
  * Handles getting and modifying users.
  */
 public final class UserService {
+    private static final int MISSING_EXPIRE_SECONDS = 10;
     private final AbstractDatabase database;
     private final Cache<UUID, User> uuidCache;
-    private final Cache<String, User> stringCache;
+    private final Map<String, UUID> names;
+    private final Set<UUID> pinned;
+    private final Cache<Object, Boolean> missing;
+    private final AtomicLong missingVersion;
+    private final Map<Object, CompletableFuture<Optional<User>>> loading;
+    private final LongAdder deduplicated;
+    private final Leaderboard leaderboard;
+    private volatile Leaderboard.Snapshot snapshot;
+    private final AtomicReference<CompletableFuture<Void>> leaderboardLoad;
+    private final Map<UUID, List<BiConsumer<User, User>>> watchers;
 
     /**
-     * Constructs the object.
+     * Constructs the object using cache settings from the config.
      *
      * @param database Database, used to interact with the user database.
+     * @param configs  ConfigService, used to read cache settings.
      */
     @Inject
+    public UserService(final AbstractDatabase database, final ConfigService configs) {
+        this(database, configs.mainConfig().getInteger("settings", "cache-maximum-size"), configs.mainConfig().getInteger("settings", "cache-expire-minutes"), missingSeconds(configs));
+    }
+
+    /**
+     * Constructs the object using default cache settings.
+     *
+     * @param database Database, used to interact with the user database.
+     */
     public UserService(final AbstractDatabase database) {
+        this(database, 10000, 30);
+    }
+
+    /**
+     * Constructs the object using the default expiry of missing users.
+     *
+     * @param database      Database, used to interact with the user database.
+     * @param maximumSize   Maximum amount of offline users to cache. Online users do not count towards the limit.
+     * @param expireMinutes Time since last access before an offline user is removed from the cache.
+     */
+    public UserService(final AbstractDatabase database, final long maximumSize, final long expireMinutes) {
+        this(database, maximumSize, expireMinutes, MISSING_EXPIRE_SECONDS);
+    }
+
+    /**
+     * Constructs the object.
+     *
+     * @param database       Database, used to interact with the user database.
+     * @param maximumSize    Maximum amount of offline users to cache. Online users do not count towards the limit.
+     * @param expireMinutes  Time since last access before an offline user is removed from the cache.
+     * @param missingSeconds Time before a user which was not found is looked up in the database again.
+     */
+    public UserService(final AbstractDatabase database, final long maximumSize, final long expireMinutes, final long missingSeconds) {
+        this(database, maximumSize, expireMinutes, missingSeconds, Ticker.systemTicker());
+    }
+
+    /**
+     * Constructs the object using the provided time source for cache expiry.
+     *
+     * @param database       Database, used to interact with the user database.
+     * @param maximumSize    Maximum amount of offline users to cache. Online users do not count towards the limit.
+     * @param expireMinutes  Time since last access before an offline user is removed from the cache.
+     * @param missingSeconds Time before a user which was not found is looked up in the database again.
+     * @param ticker         Time source used to expire cached users.
+     */
+    UserService(final AbstractDatabase database, final long maximumSize, final long expireMinutes, final long missingSeconds, final Ticker ticker) {
         this.database = database;
-        this.stringCache = Caffeine.newBuilder().build();
-        this.uuidCache = Caffeine.newBuilder().build();
+        this.pinned = ConcurrentHashMap.newKeySet();
+        this.names = new ConcurrentHashMap<>();
+        this.uuidCache = this.createCache(maximumSize, expireMinutes, ticker);
+        this.loading = new ConcurrentHashMap<>();
+        this.deduplicated = new LongAdder();
+        this.leaderboard = new Leaderboard();
+        this.snapshot = Leaderboard.Snapshot.EMPTY;
+        this.leaderboardLoad = new AtomicReference<>();
+        this.watchers = new ConcurrentHashMap<>();
+        this.missingVersion = new AtomicLong();
+        this.missing = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(missingSeconds, TimeUnit.SECONDS).ticker(ticker).build();
     }
 
     /**
@@ -67,7 +156,7 @@ public final class UserService {
      * @return True if the user is cached, false otherwise.
      */
     public boolean isUserCached(final User user) {
-        return this.uuidCache.getIfPresent(user.uuid()) != null && this.stringCache.getIfPresent(user.username()) != null;
+        return this.uuidCache.getIfPresent(user.uuid()) != null && user.uuid().equals(this.names.get(nameKey(user.username())));
     }
 
     /**
@@ -80,27 +169,63 @@ public final class UserService {
         return this.database.addUser(user).thenRun(() -> this.addToCache(user));
     }
 
+    /**
+     * Stores a user when they log in, and adds the stored user to the cache.
+     * Cached users with an unchanged username are not looked up again.
+     * If another user already had the username, the other user is updated in the background with a Mojang call.
+     *
+     * @param uuid     The UUID of the user.
+     * @param username The current username of the user.
+     * @return The result of the login.
+     */
+    public CompletableFuture<LoginResult> login(final UUID uuid, final String username) {
+        User cached = this.uuidCache.getIfPresent(uuid);
+        if (cached != null && cached.username().equals(username)) {
+            return CompletableFuture.completedFuture(new LoginResult(cached, false, null));
+        }
+        return this.database.login(uuid, username).thenApply(x -> {
+            User old = x.conflict();
+            if (old != null) {
+                this.removeFromCache(old.uuid());
+                Logger.getLogger("Minecraft").severe(String.format("Duplicate username found! Old: %s, %s. New: %s, %s. Updating old user data ...", old.uuid(), old.username(), uuid, username));
+                MojangUtil.getNameAsync(old.uuid()).thenCompose(y -> this.database.updateUsername(old.uuid(), y).thenAccept(z -> z.ifPresent(this::addToCache)));
+            }
+            this.addToCache(x.user());
+            return x;
+        });
+    }
+
     /**
      * Gets a user with the specified username.
      * The optional is empty if the cache and DAO do not contain the user.
+     * Usernames which were recently not found are not looked up again until the entry expires.
      *
      * @param username The username of a user.
      * @return A user if it exists, otherwise an empty optional.
      */
     public CompletableFuture<Optional<User>> getUser(final String username) {
-        User user = this.stringCache.getIfPresent(username);
+        String key = nameKey(username);
+        UUID uuid = this.names.get(key);
+        User user = uuid == null ? null : this.uuidCache.getIfPresent(uuid);
         if (user != null) {
             return CompletableFuture.completedFuture(Optional.of(user));
         }
-        return this.database.getUser(username).thenApply(opt -> {
-            opt.ifPresent(this::addToCache);
-            return opt;
+        if (this.missing.getIfPresent(key) != null) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return this.load(key, () -> {
+            long version = this.missingVersion.get();
+            return this.database.getUser(username).thenApply(opt -> {
+                opt.ifPresentOrElse(this::addToCache, () -> this.markMissing(key, version));
+                return opt;
+            });
         });
     }
 
     /**
      * Gets a user with the specified UUID.
      * The optional is empty if the cache and database do not contain the user.
+     * UUIDs which were recently not found are not looked up again until the entry expires.
      *
      * @param uuid The UUID of a user.
      * @return A user if it exists, otherwise an empty optional.
@@ -110,9 +235,15 @@ public final class UserService {
         if (user != null) {
             return CompletableFuture.completedFuture(Optional.of(user));
         }
-        return this.database.getUser(uuid).thenApply(opt -> {
-            opt.ifPresent(this::addToCache);
-            return opt;
+        if (this.missing.getIfPresent(uuid) != null) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return this.load(uuid, () -> {
+            long version = this.missingVersion.get();
+            return this.database.getUser(uuid).thenApply(opt -> {
+                opt.ifPresentOrElse(this::addToCache, () -> this.markMissing(uuid, version));
+                return opt;
+            });
         });
     }
 
@@ -137,15 +268,120 @@ public final class UserService {
         return this.database.rangeOfUsers(limit, offset);
     }
 
+    /**
+     * Gets a page of the leaderboard, without a previously viewed page.
+     *
+     * @param page The page number, starting at 1.
+     * @param size The max amount of users on a page.
+     * @return The page.
+     */
+    public CompletableFuture<LeaderboardPage> pageOfUsers(final int page, final int size) {
+        return this.pageOfUsers(page, size, null);
+    }
+
+    /**
+     * Gets a page of the leaderboard.
+     * Pages are read from the in-memory leaderboard once it is loaded.
+     * Otherwise, if the caller last viewed the page right before this one, the page is found by seeking past the cursor of that page instead of skipping users.
+     *
+     * @param page     The page number, starting at 1.
+     * @param size     The max amount of users on a page.
+     * @param previous The page last viewed by the caller, or null.
+     * @return The page.
+     */
+    public CompletableFuture<LeaderboardPage> pageOfUsers(final int page, final int size, final @Nullable LeaderboardPage previous) {
+        int offset = (page - 1) * size;
+        if (this.leaderboard.loaded() && size > 0) {
+            return CompletableFuture.completedFuture(new LeaderboardPage(this.leaderboard.range(size, offset), offset + 1, null));
+        }
+        boolean follows = previous != null && previous.rank() + previous.users().size() == offset + 1;
+        return this.database.pageOfUsers(size, offset, follows ? previous.next() : null);
+    }
+
+    /**
+     * Gets the page of the leaderboard which contains the user with the specified UUID.
+     * The page is read from the in-memory leaderboard if it is loaded and contains the user.
+     *
+     * @param uuid The UUID of a user.
+     * @param size The max amount of users on a page.
+     * @return The page, or an empty page if the user does not exist.
+     */
+    public CompletableFuture<LeaderboardPage> pageOfUser(final UUID uuid, final int size) {
+        int rank = this.leaderboard.loaded() ? this.leaderboard.rank(uuid) : 0;
+        if (rank > 0) {
+            int offset = (rank - 1) / size * size;
+            return CompletableFuture.completedFuture(new LeaderboardPage(this.leaderboard.range(size, offset), offset + 1, null));
+        }
+        return this.database.pageOfUser(uuid, size);
+    }
+
+    /**
+     * Loads the in-memory leaderboard from the database, replacing the current leaderboard when done.
+     * Users are streamed into the leaderboard in chunks, so the full table is never held in a separate list.
+     * Writes made on this server while loading are kept. Used at startup and to pick up writes made by other servers.
+     * If a load is already running, that load is returned instead of starting another.
+     *
+     * @return CompletableFuture holding status of the task.
+     */
+    public CompletableFuture<Void> loadLeaderboard() {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        CompletableFuture<Void> running = this.leaderboardLoad.compareAndExchange(null, future);
+        if (running != null) {
+            return running;
+        }
+        this.leaderboard.startLoad();
+        this.database.forEachUser(this.leaderboard::load).whenComplete((x, t) -> {
+            if (t != null) {
+                this.leaderboard.cancelLoad();
+            } else {
+                this.leaderboard.finishLoad();
+            }
+            this.leaderboardLoad.set(null);
+            if (t != null) {
+                future.completeExceptionally(t);
+                return;
+            }
+            future.complete(null);
+        });
+        return future;
+    }
+
+    /**
+     * Rebuilds the leaderboard snapshot from the in-memory leaderboard.
+     *
+     * @param size  The amount of top users to include.
+     * @param uuids UUIDs of users whose ranks are included, usually online players.
+     */
+    public void refreshSnapshot(final int size, final Collection<UUID> uuids) {
+        this.snapshot = this.leaderboard.snapshot(size, uuids);
+    }
+
+    /**
+     * Gets the latest leaderboard snapshot. Never blocks, and never queries the database.
+     *
+     * @return The snapshot, which is empty until the leaderboard is loaded and the snapshot is refreshed.
+     */
+    public Leaderboard.Snapshot snapshot() {
+        return this.snapshot;
+    }
+
     /**
      * Translates all online players into online users.
+     * Users missing from the cache are fetched from the database in bulk.
      *
      * @return List of online users.
      */
     public CompletableFuture<List<User>> getOnlineUsers() {
-        List<CompletableFuture<Optional<User>>> futures = Bukkit.getOnlinePlayers().stream().map(this::getUser).toList();
-        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
-                .thenApply(v -> futures.stream().map(CompletableFuture::join).filter(Optional::isPresent).map(Optional::get).toList());
+        List<UUID> uuids = Bukkit.getOnlinePlayers().stream().map(Player::getUniqueId).toList();
+        List<UUID> misses = uuids.stream().filter(x -> this.uuidCache.getIfPresent(x) == null).toList();
+        return this.database.getUsers(misses).thenApply(x -> {
+            Map<UUID, User> users = new HashMap<>();
+            x.forEach(y -> {
+                this.addToCache(y);
+                users.put(y.uuid(), y);
+            });
+            return uuids.stream().map(y -> users.getOrDefault(y, this.uuidCache.getIfPresent(y))).filter(Objects::nonNull).toList();
+        });
     }
 
     /**
@@ -171,44 +407,92 @@ public final class UserService {
                     if (u.isPresent() && !u.get().uuid().equals(uuid)) {
                         User old = u.get();
                         Logger.getLogger("Minecraft").severe(String.format("Duplicate username found! Old: %s, %s. New: %s, %s. Updating old user data ...", old.uuid(), old.username(), uuid, username));
-                        return MojangUtil.getNameAsync(old.uuid())
-                                .thenCompose(x -> this.database.setUsername(old.uuid(), x).thenApply(c -> {
-                                    this.addToCache(old.withUsername(x));
-                                    return c;
-                                }));
+                        return MojangUtil.getNameAsync(old.uuid()).thenCompose(x -> this.database.updateUsername(old.uuid(), x)).thenApply(this::cacheWritten);
                     }
-                    return CompletableFuture.completedFuture(true);
+                    return CompletableFuture.completedFuture(Optional.<User>empty());
                 })
-                .thenCompose(b -> this.database.setUsername(uuid, username))
-                .thenAccept(z -> {
-                    if (z) this.getUser(uuid).join().ifPresent(x -> this.addToCache(x.withUsername(username)));
-                });
+                .thenCompose(b -> this.database.updateUsername(uuid, username))
+                .thenAccept(this::cacheWritten);
     }
 
     /**
      * Updates the credit balance of a user with the specified UUID.
+     * The cache is updated after the write commits, so concurrent writes to the same user must be ordered by the caller, as done by TransactionEngine.
      *
      * @param uuid   The UUID of a user.
      * @param amount Amount of credits to apply to balance.
      * @return If the transaction was successful.
      */
     public CompletableFuture<Boolean> setCredits(final UUID uuid, final int amount) {
-        return this.database.setCredits(uuid, amount).thenCompose(x -> {
-            if (x) {
-                this.getUser(uuid).join().ifPresent(y -> this.addToCache(y.setCredits(amount)));
-                return CompletableFuture.completedFuture(true);
-            }
-            return CompletableFuture.completedFuture(false);
+        return this.database.updateCredits(uuid, amount).thenApply(this::cacheWritten).thenApply(Optional::isPresent);
+    }
+
+    /**
+     * Atomically adds credits to the credit balance of a user with the specified UUID.
+     *
+     * @param uuid   The UUID of a user.
+     * @param amount Amount of credits to add to balance. Negative amounts take credits.
+     * @return If the transaction was successful.
+     */
+    public CompletableFuture<Boolean> addCredits(final UUID uuid, final int amount) {
+        return this.database.addCredits(uuid, amount).thenApply(x -> {
+            x.ifPresent(this::addToCache);
+            return x.isPresent();
+        });
+    }
+
+    /**
+     * Atomically adds the same amount of credits to the credit balances of users with a single statement.
+     * The cache is updated from the stored users.
+     *
+     * @param uuids  UUIDs of the users, without duplicates.
+     * @param amount Amount of credits to add to each balance. Negative amounts take credits.
+     * @return The updated users if the update was successful, otherwise an empty list.
+     */
+    public CompletableFuture<List<User>> addCredits(final Collection<UUID> uuids, final int amount) {
+        return this.database.applyDelta(uuids, amount).thenApply(x -> {
+            x.forEach(this::addToCache);
+            return x;
+        });
+    }
+
+    /**
+     * Stores the credit balances of users with a single batched statement, and adds the users to the cache if successful.
+     *
+     * @param users The users.
+     * @return If every user was stored.
+     */
+    public CompletableFuture<Boolean> storeUsers(final List<User> users) {
+        return this.database.applyTransaction(users).thenApply(x -> {
+            if (x) users.forEach(this::addToCache);
+            return x;
         });
     }
 
     /**
      * Processes a TransactionResult and applies any changes to DAO and cache.
+     * Transactions with relative changes are applied atomically, and the result is rebuilt from the stored users.
      *
      * @param result The transaction result to process.
-     * @return CompletableFuture holding status of the task.
+     * @return The applied result, or an empty optional if nothing was written.
      */
-    public CompletableFuture<Void> processTransaction(final TransactionResult result) {
+    public CompletableFuture<Optional<TransactionResult>> processTransaction(final TransactionResult result) {
+        Map<UUID, Integer> deltas = result.transaction().deltas();
+        if (!deltas.isEmpty()) {
+            return this.database.applyDeltas(deltas).thenApply(x -> {
+                if (x.isEmpty()) {
+                    return Optional.empty();
+                }
+                Map<UUID, User> stored = new HashMap<>();
+                x.forEach(y -> {
+                    this.addToCache(y);
+                    stored.put(y.uuid(), y);
+                });
+                List<User> targets = result.targets().stream().map(y -> stored.getOrDefault(y.uuid(), y)).toList();
+                CommandExecutor executor = result.updatedExecutor() ? stored.getOrDefault(result.executor().toUser().uuid(), result.executor().toUser()) : result.executor();
+                return Optional.of(new TransactionResult(result.transaction(), executor, targets));
+            });
+        }
         List<User> users = new ArrayList<>(result.targets());
         if (!result.updatedTargets()) {
             users.removeAll(result.targets());
@@ -216,8 +500,12 @@ public final class UserService {
         if (result.updatedExecutor()) {
             users.add(result.executor().toUser());
         }
-        return this.database.applyTransaction(users).thenAccept(x -> {
-            if (x) users.forEach(this::addToCache);
+        return this.database.applyTransaction(users).thenApply(x -> {
+            if (!x) {
+                return Optional.empty();
+            }
+            users.forEach(this::addToCache);
+            return Optional.of(result);
         });
     }
 
@@ -232,14 +520,257 @@ public final class UserService {
     }
 
     /**
-     * Adds a user to the cache.
+     * Watches a cached user for changes made through this service.
+     * The watcher is called with the previous and the new user on the thread which applied the change.
+     *
+     * @param uuid    The UUID of the user.
+     * @param watcher Function called with the previous and the new user when the user changes.
+     * @return Runnable which stops watching the user.
+     */
+    public Runnable watch(final UUID uuid, final BiConsumer<User, User> watcher) {
+        this.watchers.compute(uuid, (k, v) -> {
+            List<BiConsumer<User, User>> list = v == null ? new CopyOnWriteArrayList<>() : v;
+            list.add(watcher);
+            return list;
+        });
+        return () -> this.watchers.computeIfPresent(uuid, (k, v) -> {
+            v.remove(watcher);
+            return v.isEmpty() ? null : v;
+        });
+    }
+
+    /**
+     * Pins a user in the cache, so it is never evicted. Used for online players.
+     *
+     * @param uuid The UUID of the user.
+     */
+    public void pin(final UUID uuid) {
+        this.pinned.add(uuid);
+        this.refreshPolicy(uuid);
+    }
+
+    /**
+     * Unpins a user in the cache, so it can be evicted again.
+     *
+     * @param uuid The UUID of the user.
+     */
+    public void unpin(final UUID uuid) {
+        this.pinned.remove(uuid);
+        this.refreshPolicy(uuid);
+    }
+
+    /**
+     * Gets statistics of the user cache.
+     *
+     * @return The statistics.
+     */
+    public CacheStats cacheStats() {
+        return this.uuidCache.stats();
+    }
+
+    /**
+     * Gets the approximate amount of cached users.
+     *
+     * @return The amount of cached users.
+     */
+    public long cacheSize() {
+        return this.uuidCache.estimatedSize();
+    }
+
+    /**
+     * Gets the amount of lookups which shared a database load already in progress for the same user.
+     *
+     * @return The amount of deduplicated loads.
+     */
+    public long deduplicatedLoads() {
+        return this.deduplicated.sum();
+    }
+
+    /**
+     * Loads a user from the database, sharing the load with any other lookup of the same key already in progress.
+     * The load is only shared until it completes, after which the cache answers instead.
+     *
+     * @param key    The UUID or normalized username of the user.
+     * @param loader Function which loads and caches the user.
+     * @return A user if it exists, otherwise an empty optional.
+     */
+    private CompletableFuture<Optional<User>> load(final Object key, final Supplier<CompletableFuture<Optional<User>>> loader) {
+        CompletableFuture<Optional<User>> future = new CompletableFuture<>();
+        CompletableFuture<Optional<User>> existing = this.loading.putIfAbsent(key, future);
+        if (existing != null) {
+            this.deduplicated.increment();
+            return existing;
+        }
+        loader.get().whenComplete((x, t) -> {
+            this.loading.remove(key, future);
+            if (t != null) {
+                future.completeExceptionally(t);
+                return;
+            }
+            future.complete(x);
+        });
+        return future;
+    }
+
+    /**
+     * Creates a user cache which is bounded in size and expires after access, except for pinned users.
+     * Evicted users are removed from the username index.
+     *
+     * @param maximumSize   Maximum amount of unpinned users.
+     * @param expireMinutes Time since last access before an unpinned user expires.
+     * @param ticker        Time source used to expire users.
+     * @return The cache.
+     */
+    private Cache<UUID, User> createCache(final long maximumSize, final long expireMinutes, final Ticker ticker) {
+        Set<UUID> pins = this.pinned;
+        long expiry = TimeUnit.MINUTES.toNanos(expireMinutes);
+        Weigher<UUID, User> weigher = (k, v) -> pins.contains(k) ? 0 : 1;
+        return Caffeine.newBuilder().maximumWeight(maximumSize).weigher(weigher).ticker(ticker).expireAfter(new Expiry<UUID, User>() {
+            @Override
+            public long expireAfterCreate(final UUID key, final User value, final long currentTime) {
+                return pins.contains(key) ? Long.MAX_VALUE : expiry;
+            }
+
+            @Override
+            public long expireAfterUpdate(final UUID key, final User value, final long currentTime, final long currentDuration) {
+                return this.expireAfterCreate(key, value, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(final UUID key, final User value, final long currentTime, final long currentDuration) {
+                return this.expireAfterCreate(key, value, currentTime);
+            }
+        }).evictionListener((UUID k, User v, RemovalCause c) -> {
+            if (k != null && v != null) {
+                this.names.remove(nameKey(v.username()), k);
+            }
+        }).recordStats().build();
+    }
+
+    /**
+     * Re-inserts a cached user so its weight and expiry are recalculated after it was pinned or unpinned.
+     *
+     * @param uuid The UUID of the user.
+     */
+    private void refreshPolicy(final UUID uuid) {
+        this.uuidCache.asMap().computeIfPresent(uuid, (k, v) -> v);
+    }
+
+    /**
+     * Normalizes a username for the username index. Matches the case-insensitive lookup of the database.
+     *
+     * @param username The username.
+     * @return The normalized username.
+     */
+    private static String nameKey(final String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Reads the time before a user which was not found is looked up again, using the default if it is not set.
+     *
+     * @param configs ConfigService, used to read cache settings.
+     * @return The time, in seconds.
+     */
+    private static long missingSeconds(final ConfigService configs) {
+        int seconds = configs.mainConfig().getInteger("settings", "cache-missing-seconds");
+        return seconds > 0 ? seconds : MISSING_EXPIRE_SECONDS;
+    }
+
+    /**
+     * Remembers that a user was not found, so it is not looked up again until the entry expires.
+     * If a user was cached after the lookup started, the entry is removed again, as it may belong to that user.
+     *
+     * @param key     The UUID or normalized username of the user.
+     * @param version Version of the missing users when the lookup started.
+     */
+    private void markMissing(final Object key, final long version) {
+        this.missing.put(key, true);
+        if (this.missingVersion.get() != version) {
+            this.missing.invalidate(key);
+        }
+    }
+
+    /**
+     * Removes users from the missing users, and invalidates lookups which are still in progress.
+     *
+     * @param keys The UUIDs or normalized usernames of the users.
+     */
+    private void clearMissing(final Collection<?> keys) {
+        this.missingVersion.incrementAndGet();
+        this.missing.invalidateAll(keys);
+    }
+
+    /**
+     * Adds a user to the cache, replacing any cached user with the same UUID.
+     * The username index is updated while the entry is locked, so both always agree.
+     * The user is no longer considered missing, and is added to the leaderboard. Watchers are notified if the user changed.
      *
      * @param user The user to add.
      */
     private void addToCache(final User user) {
-        this.removeFromCache(user.uuid());
-        this.uuidCache.put(user.uuid(), user);
-        this.stringCache.put(user.username(), user);
+        this.clearMissing(List.of(user.uuid(), nameKey(user.username())));
+        User[] previous = new User[1];
+        this.uuidCache.asMap().compute(user.uuid(), (k, v) -> {
+            if (v != null) {
+                this.names.remove(nameKey(v.username()), k);
+            }
+            this.names.put(nameKey(user.username()), k);
+            previous[0] = v;
+            return user;
+        });
+        this.leaderboard.update(user);
+        this.notifyWatchers(previous[0], user);
+    }
+
+    /**
+     * Replaces a cached user with the row which was written to the database, once the write has committed.
+     *
+     * @param written The written row, or an empty optional if nothing was written.
+     * @return The written row.
+     */
+    private Optional<User> cacheWritten(final Optional<User> written) {
+        written.ifPresent(x -> this.updateCache(x.uuid(), y -> x));
+        return written;
+    }
+
+    /**
+     * Applies a successful write to a cached user and the leaderboard. Users which are not cached are loaded fresh on their next lookup.
+     * The username index is updated while the entry is locked, so both always agree.
+     *
+     * @param uuid   The UUID of the user.
+     * @param update Function which applies the write to the cached user.
+     */
+    private void updateCache(final UUID uuid, final UnaryOperator<User> update) {
+        User[] previous = new User[1];
+        User updated = this.uuidCache.asMap().computeIfPresent(uuid, (k, v) -> {
+            User user = update.apply(v);
+            String key = nameKey(user.username());
+            if (!key.equals(nameKey(v.username()))) {
+                this.names.remove(nameKey(v.username()), k);
+                this.names.put(key, k);
+                this.clearMissing(List.of(key));
+            }
+            previous[0] = v;
+            return user;
+        });
+        this.leaderboard.update(uuid, update);
+        if (updated != null) {
+            this.notifyWatchers(previous[0], updated);
+        }
+    }
+
+    /**
+     * Notifies watchers of a user if the user changed.
+     *
+     * @param previous The previously cached user, or null if the user was not cached.
+     * @param user     The new user.
+     */
+    private void notifyWatchers(final @Nullable User previous, final User user) {
+        List<BiConsumer<User, User>> list = this.watchers.get(user.uuid());
+        if (list != null && previous != null && !previous.equals(user)) {
+            list.forEach(x -> x.accept(previous, user));
+        }
     }
 
     /**
@@ -248,10 +779,9 @@ public final class UserService {
      * @param uuid The UUID to remove.
      */
     public void removeFromCache(final UUID uuid) {
-        User oldUUID = this.uuidCache.getIfPresent(uuid);
-        if (oldUUID != null) {
-            this.stringCache.invalidate(oldUUID.username());
-            this.uuidCache.invalidate(oldUUID.uuid());
-        }
+        this.uuidCache.asMap().computeIfPresent(uuid, (k, v) -> {
+            this.names.remove(nameKey(v.username()), k);
+            return null;
+        });
     }
 }
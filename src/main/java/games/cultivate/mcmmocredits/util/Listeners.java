@@ -26,10 +26,14 @@ package games.cultivate.mcmmocredits.util;
 import com.gmail.nossr50.datatypes.skills.PrimarySkillType;
 import games.cultivate.mcmmocredits.MCMMOCredits;
 import games.cultivate.mcmmocredits.config.ConfigService;
+import games.cultivate.mcmmocredits.database.LoginResult;
 import games.cultivate.mcmmocredits.events.CreditTransactionEvent;
+import games.cultivate.mcmmocredits.menu.MenuView;
 import games.cultivate.mcmmocredits.menu.RedeemMenu;
 import games.cultivate.mcmmocredits.placeholders.Resolver;
+import games.cultivate.mcmmocredits.transaction.BulkTransactionEngine;
 import games.cultivate.mcmmocredits.transaction.Transaction;
+import games.cultivate.mcmmocredits.transaction.TransactionEngine;
 import games.cultivate.mcmmocredits.transaction.TransactionResult;
 import games.cultivate.mcmmocredits.transaction.TransactionType;
 import games.cultivate.mcmmocredits.user.CommandExecutor;
@@ -54,7 +58,10 @@ import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.InventoryView;
 import org.bukkit.inventory.PlayerInventory;
 
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
 
 /**
  * Event Handlers used to manage the Database and ChatQueue.
@@ -64,6 +71,8 @@ public class Listeners implements Listener {
     private final UserService service;
     private final ConfigService configs;
     private final MCMMOCredits plugin;
+    private final TransactionEngine engine;
+    private final BulkTransactionEngine bulk;
 
     /**
      * Constructs the object.
@@ -72,13 +81,17 @@ public class Listeners implements Listener {
      * @param queue   ChatQueue, used to listen for relevant chat messages.
      * @param service UserService, required to modify users.
      * @param plugin  Instance of the plugin to help with inventory management.
+     * @param engine  TransactionEngine, used to execute transactions in order.
+     * @param bulk    BulkTransactionEngine, used to execute transactions which target many users.
      */
     @Inject
-    public Listeners(final ConfigService configs, final ChatQueue queue, final UserService service, final MCMMOCredits plugin) {
+    public Listeners(final ConfigService configs, final ChatQueue queue, final UserService service, final MCMMOCredits plugin, final TransactionEngine engine, final BulkTransactionEngine bulk) {
         this.configs = configs;
         this.queue = queue;
         this.service = service;
         this.plugin = plugin;
+        this.engine = engine;
+        this.bulk = bulk;
     }
 
     /**
@@ -96,16 +109,10 @@ public class Listeners implements Listener {
         String username = profile.getName();
         //joining solves a race condition in which new user are not available during command registration
         //when using a "slow" filesystem or MYSQL.
-        this.service.getUser(uuid).thenAccept(u -> {
-            if (u.isPresent()) {
-                this.service.setUsername(uuid, username);
-                return;
-            }
-            this.service.addUser(new User(uuid, username, 0, 0)).join();
-            if (this.configs.mainConfig().getBoolean("settings", "add-user-message")) {
-                Console.INSTANCE.sendText(this.configs.getMessage("add-user"), r -> r.addTag("target", username));
-            }
-        }).join();
+        LoginResult result = this.service.login(uuid, username).join();
+        if (result.created() && this.configs.mainConfig().getBoolean("settings", "add-user-message")) {
+            Console.INSTANCE.sendText(this.configs.getTemplate("add-user"), r -> r.addTag("target", username));
+        }
     }
 
     /**
@@ -115,8 +122,9 @@ public class Listeners implements Listener {
      */
     @EventHandler
     public void onPlayerJoin(final PlayerJoinEvent e) {
+        this.service.pin(e.getPlayer().getUniqueId());
         if (this.configs.mainConfig().getBoolean("settings", "send-login-message")) {
-            this.service.getUser(e.getPlayer()).thenAccept(x -> x.orElseThrow().sendText(this.configs.getMessage("login-message")));
+            this.service.getUser(e.getPlayer()).thenAccept(x -> x.orElseThrow().sendText(this.configs.getTemplate("login-message")));
         }
     }
 
@@ -132,7 +140,7 @@ public class Listeners implements Listener {
             String completion = PlainTextComponentSerializer.plainText().serialize(e.message());
             if (completion.equalsIgnoreCase("cancel")) {
                 this.queue.remove(uuid);
-                this.service.getUser(uuid).thenAccept(x -> x.orElseThrow().sendText(this.configs.getMessage("cancel-prompt")));
+                this.service.getUser(uuid).thenAccept(x -> x.orElseThrow().sendText(this.configs.getTemplate("cancel-prompt")));
             }
             this.queue.complete(uuid, completion);
             e.setCancelled(true);
@@ -147,6 +155,7 @@ public class Listeners implements Listener {
     @EventHandler
     public void onPlayerQuit(final PlayerQuitEvent e) {
         UUID uuid = e.getPlayer().getUniqueId();
+        this.service.unpin(uuid);
         this.service.removeFromCache(uuid);
         this.queue.remove(uuid);
     }
@@ -161,24 +170,23 @@ public class Listeners implements Listener {
         if (e.isCancelled()) {
             return;
         }
-        Transaction tr = e.transaction();
-        tr.validateTransaction().forEach((k, v) -> v.ifPresent(y -> {
-            tr.executor().sendText(this.configs.getMessage(y), r -> r.addTransaction(tr).addUser(k, "target"));
-            tr.targets().remove(k);
-        }));
-        if (tr.targets().isEmpty()) {
-            return;
-        }
-        TransactionResult result = tr.execute();
-        this.service.processTransaction(result).thenRun(() -> {
+        Transaction transaction = e.transaction();
+        BiConsumer<User, String> failures = (k, y) -> transaction.executor().sendText(this.configs.getTemplate(y), r -> r.addTransaction(transaction).addUser(k, "target"));
+        CompletableFuture<Optional<TransactionResult>> future = transaction.type().isBulk() ? this.bulk.execute(transaction, failures) : this.engine.execute(transaction, failures);
+        future.thenAccept(opt -> opt.ifPresent(result -> {
+            Transaction tr = result.transaction();
             if (!e.senderFeedback()) {
                 CommandExecutor executor = result.targetExecutor().isPresent() ? result.targetExecutor().get() : result.executor();
-                executor.sendText(this.configs.getMessage(tr.messageKey()), Resolver.ofResult(result));
+                executor.sendText(this.configs.getTemplate(tr.messageKey()), Resolver.ofResult(result));
             }
             if (!e.userFeedback()) {
-                result.targets().stream().filter(x -> x.player().isOnline()).forEach(x -> x.sendText(this.configs.getMessage(tr.userMessageKey()), Resolver.ofResult(result, x)));
+                this.bulk.forEachChunk(result.targets(), x -> {
+                    if (x.player().isOnline()) {
+                        x.sendText(this.configs.getTemplate(tr.userMessageKey()), Resolver.ofResult(result, x));
+                    }
+                });
             }
-        });
+        }));
     }
 
     /**
@@ -188,21 +196,21 @@ public class Listeners implements Listener {
      */
     @EventHandler
     public void onInventoryDrag(final InventoryDragEvent e) {
-        if (e.getInventory().getHolder(true) instanceof RedeemMenu) {
+        if (e.getInventory().getHolder(true) instanceof MenuView) {
             e.setCancelled(true);
         }
     }
 
     /**
-     * Cancel item refresh task when our inventory is closed.
+     * Stop refreshing items when our inventory is closed.
      * Set item in offhand to avoid client desync issue.
      *
      * @param e The event.
      */
     @EventHandler
     public void onInventoryClose(final InventoryCloseEvent e) {
-        if (e.getInventory().getHolder(true) instanceof RedeemMenu menu) {
-            menu.cancelRefresh();
+        if (e.getInventory().getHolder(true) instanceof MenuView view) {
+            view.close();
             PlayerInventory inv = e.getPlayer().getInventory();
             inv.setItemInOffHand(inv.getItemInOffHand());
         }
@@ -220,30 +228,35 @@ public class Listeners implements Listener {
         if (inv == null) {
             return;
         }
-        if (view.getTopInventory().getHolder(true) instanceof RedeemMenu menu) {
+        if (view.getTopInventory().getHolder(true) instanceof MenuView menuView) {
             e.setCancelled(true);
             if (inv.equals(view.getBottomInventory())) {
                 return;
             }
-            menu.getItem(e.getSlot()).ifPresent(x -> {
-                switch (x.getValue().action()) {
-                    case COMMAND -> this.doCommand(e, x.getKey());
-                    case REDEEM -> this.doRedeem(e, x.getKey());
-                    default -> { /* do nothing */ }
+            RedeemMenu.Entry entry = menuView.menu().getEntry(e.getSlot());
+            if (entry == null) {
+                return;
+            }
+            switch (entry.item().action()) {
+                case COMMAND -> this.doCommand(e, entry.command());
+                case REDEEM -> {
+                    if (entry.skill() != null) {
+                        this.doRedeem(e, entry.skill());
+                    }
                 }
-            });
+                default -> { /* do nothing */ }
+            }
         }
     }
 
     /**
      * Executes a command when specific items are clicked in the RedeemMenu.
      *
-     * @param event The inventory event.
-     * @param key   The key of the item in the inventory's item map.
+     * @param event   The inventory event.
+     * @param command The command of the clicked item.
      */
-    private void doCommand(final InventoryClickEvent event, final String key) {
+    private void doCommand(final InventoryClickEvent event, final String command) {
         event.getClickedInventory().close();
-        String command = this.configs.menuConfig().getString("items", key, "command");
         Bukkit.dispatchCommand(event.getWhoClicked(), command);
     }
 
@@ -251,14 +264,13 @@ public class Listeners implements Listener {
      * Executes a redemption when specific items are clicked in the RedeemMenu.
      *
      * @param event The inventory event.
-     * @param key   The key of the item in the inventory's item map.
+     * @param skill The skill of the clicked item.
      */
-    private void doRedeem(final InventoryClickEvent event, final String key) {
+    private void doRedeem(final InventoryClickEvent event, final PrimarySkillType skill) {
         event.getClickedInventory().close();
         this.service.getUser(event.getWhoClicked().getUniqueId()).thenAccept(opt -> {
             User user = opt.orElseThrow();
-            PrimarySkillType skill = PrimarySkillType.valueOf(key.toUpperCase());
-            user.sendText(this.configs.getMessage("credits-redeem-prompt"), r -> r.addSkill(skill));
+            user.sendText(this.configs.getTemplate("credits-redeem-prompt"), r -> r.addSkill(skill));
             this.queue.act(user.uuid(), i -> Bukkit.getGlobalRegionScheduler().runDelayed(this.plugin, t -> {
                 if (i != null) {
                     Transaction transaction = Transaction.builder(user, TransactionType.REDEEM, Integer.parseInt(i)).skill(skill).build();
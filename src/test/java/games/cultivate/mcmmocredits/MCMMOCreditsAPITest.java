@@ -25,6 +25,7 @@ package games.cultivate.mcmmocredits;
 
 import games.cultivate.mcmmocredits.database.AbstractDatabase;
 import games.cultivate.mcmmocredits.database.DatabaseUtil;
+import games.cultivate.mcmmocredits.transaction.TransactionEngine;
 import games.cultivate.mcmmocredits.user.User;
 import games.cultivate.mcmmocredits.user.UserService;
 import org.junit.jupiter.api.AfterEach;
@@ -48,7 +49,7 @@ class MCMMOCreditsAPITest {
     @BeforeEach
     void setUp() {
         this.service = new UserService(this.database);
-        this.api = new MCMMOCreditsAPI(this.service);
+        this.api = new MCMMOCreditsAPI(this.service, new TransactionEngine(this.service));
         this.user = new User(this.uuid, "TestUser", this.credits, 0);
     }
 
@@ -23,6 +23,7 @@
 //
 package games.cultivate.mcmmocredits.config;
 
+import games.cultivate.mcmmocredits.menu.RedeemMenu;
 import org.bukkit.Bukkit;
 import org.bukkit.inventory.ItemFactory;
 import org.bukkit.inventory.meta.ItemMeta;
@@ -37,6 +38,8 @@ import java.nio.file.Path;
 import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
@@ -81,6 +84,16 @@ class ConfigServiceTest {
         assertNotNull(service.menuConfig());
     }
 
+    @Test
+    void getMenu_NotReloaded_ReturnsCachedMenu() {
+        service.reloadConfigs();
+        RedeemMenu menu = service.getMenu();
+        assertNotNull(menu);
+        assertSame(menu, service.getMenu());
+        service.reloadConfigs();
+        assertNotSame(menu, service.getMenu());
+    }
+
     @Test
     void loadConfig_LoadsConfig() {
         assertNotNull(service.loadConfig(MainData.class, "testconfig.yml"));
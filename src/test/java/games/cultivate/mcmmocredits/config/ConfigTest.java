@@ -35,6 +35,7 @@ import java.io.StringWriter;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ConfigTest {
@@ -68,6 +69,12 @@ class ConfigTest {
         assertEquals("The message prefix!!The actual message!", config.getMessage("test-message-section"));
     }
 
+    @Test
+    void getTemplate_TopLevelMessage_CompiledOnLoad() {
+        config.set("The actual message!", "test-template-section");
+        assertSame(config.getTemplate("test-template-section"), config.getTemplate("test-template-section"));
+    }
+
     @Test
     void getInteger_ReturnsCorrectValue() {
         assertEquals(10, config.getInteger("settings", "leaderboard-page-size"));
@@ -40,6 +40,7 @@ import java.util.Random;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class CSVConverterTest {
@@ -49,6 +50,7 @@ class CSVConverterTest {
     @AfterEach
     void tearDown() {
         Path.of("src", "test", "resources", "database.csv").toFile().delete();
+        this.currentDatabase.jdbi().useHandle(x -> x.execute("DELETE FROM MCMMOCredits"));
     }
 
     @Test
@@ -69,4 +71,17 @@ class CSVConverterTest {
         assertEquals(newUsers.size(), currentUsers.size());
         assertTrue(currentUsers.containsAll(newUsers));
     }
+
+    @Test
+    void run_ExistingUnrelatedUser_VerificationFails() throws IOException {
+        Path csvPath = Path.of("src", "test", "resources", "database.csv");
+        User user = new User(UUID.randomUUID(), "tester1", 10, 10);
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(csvPath.toFile()))) {
+            writer.write(String.format("%s,%s,%d,%d", user.uuid(), user.username(), user.credits(), user.redeemed()));
+            writer.newLine();
+        }
+        this.currentDatabase.addUser(new User(UUID.randomUUID(), "tester2", 20, 20)).join();
+        assertFalse(new CSVConverter(this.currentDatabase, csvPath).run().join());
+        assertEquals(user, this.currentDatabase.getUser(user.uuid()).join().orElseThrow());
+    }
 }
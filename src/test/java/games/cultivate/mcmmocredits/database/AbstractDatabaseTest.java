@@ -28,14 +28,20 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -64,6 +70,11 @@ class AbstractDatabaseTest {
         assertEquals(this.user, ouser.join().orElseThrow());
     }
 
+    @Test
+    void getUser_WildcardUsername_UserNotFound() {
+        assertTrue(this.database.getUser("test_sername").join().isEmpty());
+    }
+
     @Test
     void addUsers_NewUsers_UsersAdded() {
         User first = new User(UUID.randomUUID(), "tester1", 1000, 10);
@@ -130,10 +141,243 @@ class AbstractDatabaseTest {
         assertEquals(this.user, this.database.getUser(this.uuid).join().orElseThrow());
     }
 
+    @Test
+    void addUser_DuplicateUUID_ThrowsException() {
+        User duplicate = new User(this.uuid, "duplicateUser", 0, 0);
+        assertThrows(CompletionException.class, this.database.addUser(duplicate)::join);
+    }
+
+    @Test
+    void migrate_AlreadyMigrated_SchemaUnchanged() {
+        this.database.migrate();
+        int version = this.database.jdbi().withHandle(x -> x.createQuery("SELECT MAX(version) FROM MCMMOCredits_schema").mapTo(int.class).one());
+        assertEquals(this.database.migrations().size(), version);
+        assertEquals(this.user, this.database.getUser(this.uuid).join().orElseThrow());
+    }
+
+    @Test
+    void mergeDuplicates_DuplicateUuid_KeepsHighestBalance() {
+        this.database.jdbi().useHandle(x -> {
+            x.execute("DROP INDEX mcmmocredits_uuid;");
+            x.createUpdate("INSERT INTO MCMMOCredits(uuid, username, credits, redeemed) VALUES(:uuid,:username,900,1);").bind("uuid", this.uuid).bind("username", this.username).execute();
+            this.database.mergeDuplicates(x);
+            this.database.createIndexes(x, "MCMMOCredits");
+        });
+        assertEquals(new User(this.uuid, this.username, 900, this.redeemed), this.database.getUser(this.uuid).join().orElseThrow());
+        assertEquals(1, this.database.countUsers().join());
+        assertThrows(CompletionException.class, this.database.addUser(this.user)::join);
+    }
+
     @Test
     void updateUser_ExistingUser_ReturnsUpdatedUser() {
         this.database.updateUser(new User(this.uuid, this.username, 10000, this.redeemed)).join();
         User fromDAO = this.database.getUser(this.uuid).join().orElseThrow();
         assertEquals(10000, fromDAO.credits());
     }
+
+    @Test
+    void addCredits_ExistingUser_ReturnsUpdatedUser() {
+        User updated = this.database.addCredits(this.uuid, 40).join().orElseThrow();
+        assertEquals(this.credits + 40, updated.credits());
+        assertEquals(updated, this.database.getUser(this.uuid).join().orElseThrow());
+    }
+
+    @Test
+    void addCredits_NegativeBalance_ReturnsEmpty() {
+        assertTrue(this.database.addCredits(this.uuid, -(this.credits + 1)).join().isEmpty());
+        assertEquals(this.user, this.database.getUser(this.uuid).join().orElseThrow());
+    }
+
+    @Test
+    void applyDeltas_OneInvalidUser_NothingApplied() {
+        User other = new User(UUID.randomUUID(), "tester1", 10, 0);
+        this.database.addUser(other).join();
+        assertTrue(this.database.applyDeltas(Map.of(this.uuid, 50, other.uuid(), -20)).join().isEmpty());
+        assertEquals(this.user, this.database.getUser(this.uuid).join().orElseThrow());
+        assertEquals(other, this.database.getUser(other.uuid()).join().orElseThrow());
+    }
+
+    @Test
+    void applyDelta_ValidUsers_AppliesToAll() {
+        User other = new User(UUID.randomUUID(), "tester1", 10, 0);
+        this.database.addUser(other).join();
+        List<User> users = this.database.applyDelta(List.of(this.uuid, other.uuid()), -10).join();
+        assertEquals(2, users.size());
+        assertEquals(this.credits - 10, this.database.getUser(this.uuid).join().orElseThrow().credits());
+        assertEquals(0, this.database.getUser(other.uuid()).join().orElseThrow().credits());
+    }
+
+    @Test
+    void applyDelta_OneInvalidUser_NothingApplied() {
+        User other = new User(UUID.randomUUID(), "tester1", 10, 0);
+        this.database.addUser(other).join();
+        assertTrue(this.database.applyDelta(List.of(this.uuid, other.uuid()), -20).join().isEmpty());
+        assertEquals(this.user, this.database.getUser(this.uuid).join().orElseThrow());
+        assertEquals(other, this.database.getUser(other.uuid()).join().orElseThrow());
+    }
+
+    @Test
+    void pageOfUsers_WithCursor_ReturnsNextPage() {
+        User first = new User(UUID.randomUUID(), "firstPlace", 1000, 10);
+        User second = new User(UUID.randomUUID(), "secondPlace", 500, 10);
+        User third = new User(UUID.randomUUID(), "thirdPlace", 100, 10);
+        this.database.addUsers(List.of(first, second, third)).join();
+        LeaderboardPage page = this.database.pageOfUsers(2, 0, null).join();
+        assertEquals(List.of(first, second), page.users());
+        LeaderboardPage next = this.database.pageOfUsers(2, 2, page.next()).join();
+        assertEquals(List.of(third, this.user), next.users());
+        assertEquals(3, next.rank());
+    }
+
+    @Test
+    void pageOfUser_ExistingUser_ReturnsContainingPage() {
+        User first = new User(UUID.randomUUID(), "firstPlace", 1000, 10);
+        User second = new User(UUID.randomUUID(), "secondPlace", 500, 10);
+        User third = new User(UUID.randomUUID(), "thirdPlace", 100, 10);
+        User fifth = new User(UUID.randomUUID(), "fifthPlace", 10, 10);
+        this.database.addUsers(List.of(first, second, third, fifth)).join();
+        LeaderboardPage page = this.database.pageOfUser(this.uuid, 2).join();
+        assertEquals(List.of(third, this.user), page.users());
+        assertEquals(3, page.rank());
+    }
+
+    @Test
+    void pageOfUser_MissingUser_ReturnsEmptyPage() {
+        assertEquals(LeaderboardPage.empty(), this.database.pageOfUser(UUID.randomUUID(), 2).join());
+    }
+
+    @Test
+    void pageOfUser_ZeroLimit_ThrowsException() {
+        assertThrows(CompletionException.class, this.database.pageOfUser(this.uuid, 0)::join);
+    }
+
+    @Test
+    void forEachUser_ManyUsers_ConsumesAllUsersInChunks() {
+        List<User> users = IntStream.range(0, 2500).mapToObj(i -> new User(UUID.randomUUID(), "tester" + i, i, 0)).toList();
+        assertEquals(2500, this.database.addUsers(users.iterator()).join());
+        List<Integer> sizes = new ArrayList<>();
+        Set<User> consumed = new HashSet<>();
+        this.database.forEachUser(x -> {
+            sizes.add(x.size());
+            consumed.addAll(x);
+        }).join();
+        assertEquals(List.of(1000, 1000, 501), sizes);
+        assertTrue(consumed.containsAll(users));
+        assertTrue(consumed.contains(this.user));
+    }
+
+    @Test
+    void countUsers_ThreeUsers_ReturnsThree() {
+        User first = new User(UUID.randomUUID(), "tester1", 1000, 10);
+        User second = new User(UUID.randomUUID(), "tester2", 2000, 20);
+        this.database.addUsers(List.of(first, second)).join();
+        assertEquals(3, this.database.countUsers().join());
+    }
+
+    @Test
+    void convertUuids_TextToBinaryAndBack_UsersPreserved() {
+        DatabaseOptions binary = new DatabaseOptions(true, 0, false, 1000L, 500, true);
+        AbstractDatabase text = DatabaseUtil.create("binary");
+        User first = new User(UUID.randomUUID(), "tester1", 1000, 10);
+        User second = new User(UUID.randomUUID(), "tester2", 2000, 20);
+        text.addUsers(List.of(first, second)).join();
+        text.disable();
+        AbstractDatabase converted = DatabaseUtil.create("binary", binary);
+        assertTrue(converted.uuids.binary());
+        assertEquals(first, converted.getUser(first.uuid()).join().orElseThrow());
+        assertEquals(second, converted.getUser("tester2").join().orElseThrow());
+        User third = new User(UUID.randomUUID(), "tester3", 3000, 30);
+        converted.addUser(third).join();
+        assertEquals(List.of(third, second, first), converted.rangeOfUsers(3, 0).join());
+        converted.disable();
+        AbstractDatabase restored = DatabaseUtil.create("binary");
+        assertFalse(restored.uuids.binary());
+        assertEquals(third, restored.getUser(third.uuid()).join().orElseThrow());
+        assertEquals(3, restored.countUsers().join());
+        restored.disable();
+    }
+
+    @Test
+    void migrate_InterruptedAfterDrop_ConversionResumed() {
+        AbstractDatabase text = DatabaseUtil.create("resumed");
+        User first = new User(UUID.randomUUID(), "tester1", 1000, 10);
+        text.addUser(first).join();
+        text.jdbi().useHandle(x -> x.execute("ALTER TABLE MCMMOCredits RENAME TO MCMMOCredits_new;"));
+        text.disable();
+        AbstractDatabase resumed = DatabaseUtil.create("resumed");
+        assertEquals(first, resumed.getUser(first.uuid()).join().orElseThrow());
+        assertFalse(resumed.jdbi().withHandle(x -> AbstractDatabase.hasTable(x, "MCMMOCredits_new")));
+        assertThrows(CompletionException.class, resumed.addUser(first)::join);
+        resumed.disable();
+    }
+
+    @Test
+    void migrate_InterruptedDuringCopy_PartialCopyDropped() {
+        AbstractDatabase text = DatabaseUtil.create("restarted");
+        User first = new User(UUID.randomUUID(), "tester1", 1000, 10);
+        text.addUser(first).join();
+        text.jdbi().useHandle(x -> x.execute(text.createTable("MCMMOCredits_new", true)));
+        text.disable();
+        AbstractDatabase restarted = DatabaseUtil.create("restarted");
+        assertEquals(first, restarted.getUser(first.uuid()).join().orElseThrow());
+        assertFalse(restarted.jdbi().withHandle(x -> AbstractDatabase.hasTable(x, "MCMMOCredits_new")));
+        restarted.disable();
+    }
+
+    @Test
+    void login_NewUser_UserCreated() {
+        UUID id = UUID.randomUUID();
+        LoginResult result = this.database.login(id, "newUser").join();
+        assertTrue(result.created());
+        assertEquals(new User(id, "newUser", 0, 0), result.user());
+        assertEquals(result.user(), this.database.getUser(id).join().orElseThrow());
+    }
+
+    @Test
+    void login_UnchangedUsername_ReturnsExistingUser() {
+        LoginResult result = this.database.login(this.uuid, this.username).join();
+        assertFalse(result.created());
+        assertEquals(this.user, result.user());
+    }
+
+    @Test
+    void login_ChangedUsername_UsernameUpdated() {
+        LoginResult result = this.database.login(this.uuid, "updatedUsername").join();
+        User updated = new User(this.uuid, "updatedUsername", this.credits, this.redeemed);
+        assertFalse(result.created());
+        assertEquals(updated, result.user());
+        assertEquals(updated, this.database.getUser(this.uuid).join().orElseThrow());
+        assertEquals(1, this.database.countUsers().join());
+    }
+
+    @Test
+    void login_DuplicateUsername_ReturnsConflict() {
+        LoginResult result = this.database.login(UUID.randomUUID(), this.username).join();
+        assertTrue(result.created());
+        assertEquals(this.user, result.conflict());
+    }
+
+    @Test
+    void login_WildcardUsername_NoConflict() {
+        LoginResult result = this.database.login(UUID.randomUUID(), "test_sername").join();
+        assertNull(result.conflict());
+    }
+
+    @Test
+    void getUsers_ManyUuids_ReturnsExistingUsers() {
+        List<User> users = IntStream.range(0, 1200).mapToObj(i -> new User(UUID.randomUUID(), "tester" + i, i, 0)).toList();
+        this.database.addUsers(users).join();
+        List<UUID> uuids = new ArrayList<>(users.stream().map(User::uuid).toList());
+        uuids.add(UUID.randomUUID());
+        uuids.add(this.uuid);
+        List<User> result = this.database.getUsers(uuids).join();
+        assertEquals(1201, result.size());
+        assertTrue(result.containsAll(users));
+        assertTrue(result.contains(this.user));
+    }
+
+    @Test
+    void getUsers_NoUuids_ReturnsEmptyList() {
+        assertTrue(this.database.getUsers(List.of()).join().isEmpty());
+    }
 }
@@ -0,0 +1,94 @@
+//
+// MIT License
+//
+// Copyright (c) 2024 Cultivate Games
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+package games.cultivate.mcmmocredits.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DatabaseExecutorTest {
+
+    @Test
+    void execute_VirtualThreads_ConcurrencyLimitedToSize() {
+        this.assertLimited(DatabaseExecutor.create(true, 2, "test"));
+    }
+
+    @Test
+    void execute_PlatformThreads_ConcurrencyLimitedToSize() {
+        this.assertLimited(DatabaseExecutor.create(false, 2, "test"));
+    }
+
+    @Test
+    void execute_NestedTasks_StillLimited() {
+        DatabaseExecutor executor = DatabaseExecutor.create(false, 1, "test");
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        Runnable task = () -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+        };
+        List<CompletableFuture<Void>> futures = IntStream.range(0, 10)
+                .mapToObj(i -> CompletableFuture.runAsync(task, executor).thenCompose(x -> CompletableFuture.runAsync(task, executor)))
+                .toList();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        assertEquals(1, peak.get());
+        executor.shutdown();
+    }
+
+    @Test
+    void averageWaitMillis_NoTasks_ReturnsZero() {
+        DatabaseExecutor executor = DatabaseExecutor.create(true, 1, "test");
+        assertEquals(0, executor.averageWaitMillis());
+        executor.shutdown();
+    }
+
+    private void assertLimited(final DatabaseExecutor executor) {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<CompletableFuture<Void>> futures = IntStream.range(0, 20).mapToObj(i -> CompletableFuture.runAsync(() -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+        }, executor)).toList();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        assertTrue(peak.get() <= executor.size());
+        assertTrue(executor.averageWaitMillis() > 0);
+        executor.shutdown();
+    }
+}
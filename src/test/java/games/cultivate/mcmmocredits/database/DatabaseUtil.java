@@ -31,8 +31,12 @@ public class DatabaseUtil {
     }
 
     public static AbstractDatabase create(final String name) {
+        return create(name, DatabaseOptions.defaults());
+    }
+
+    public static AbstractDatabase create(final String name, final DatabaseOptions options) {
         JdbcDataSource ds = new JdbcDataSource();
         ds.setURL("jdbc:h2:mem:%s;DB_CLOSE_DELAY=-1;MODE=MYSQL;IGNORECASE=TRUE".formatted(name));
-        return new H2Database(ds);
+        return DatabaseType.H2.create(ds, options);
     }
 }
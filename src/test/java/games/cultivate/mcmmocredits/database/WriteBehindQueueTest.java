@@ -0,0 +1,104 @@
+//
+// MIT License
+//
+// Copyright (c) 2024 Cultivate Games
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+package games.cultivate.mcmmocredits.database;
+
+import games.cultivate.mcmmocredits.user.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteBehindQueueTest {
+    private final UUID uuid = UUID.randomUUID();
+    private final AbstractDatabase database = DatabaseUtil.create("wbq", new DatabaseOptions(true, 0, true, 60000L, 1000, false));
+    private final WriteBehindQueue queue = this.database.writeQueue().orElseThrow();
+    private final User user = new User(this.uuid, "testUsername", 100, 10);
+
+    @BeforeEach
+    void setUp() {
+        this.database.addUser(this.user).join();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.queue.close();
+        this.database.jdbi().useHandle(x -> x.execute("DELETE FROM MCMMOCredits"));
+    }
+
+    @Test
+    void add_SameUser_UpdatesCoalesced() {
+        this.database.setCredits(this.uuid, 200).join();
+        this.database.setCredits(this.uuid, 300).join();
+        assertEquals(1, this.queue.depth());
+        assertEquals(100, this.storedUser().credits());
+    }
+
+    @Test
+    void flush_QueuedUpdates_UpdatesWritten() {
+        this.database.setCredits(this.uuid, 200).join();
+        this.database.applyTransaction(List.of(new User(this.uuid, "testUsername", 250, 20))).join();
+        this.queue.flush();
+        assertEquals(0, this.queue.depth());
+        assertEquals(new User(this.uuid, "testUsername", 250, 20), this.storedUser());
+        assertTrue(this.queue.averageFlushMillis() > 0);
+    }
+
+    @Test
+    void getUser_QueuedUpdate_ReturnsQueuedValue() {
+        this.database.setCredits(this.uuid, 500).join();
+        assertEquals(500, this.database.getUser(this.uuid).join().orElseThrow().credits());
+    }
+
+    @Test
+    void updateUser_QueuedUpdate_QueueFlushedFirst() {
+        this.database.setCredits(this.uuid, 500).join();
+        this.database.updateUser(new User(this.uuid, "testUsername", 50, 10)).join();
+        this.queue.flush();
+        assertEquals(50, this.storedUser().credits());
+    }
+
+    @Test
+    void flush_FailedBatch_UpdatesKept() {
+        this.queue.add(this.uuid, -5);
+        this.queue.flush();
+        assertEquals(1, this.queue.depth());
+        assertEquals(100, this.storedUser().credits());
+    }
+
+    @Test
+    void setCredits_MissingUser_ReturnsFalse() {
+        assertFalse(this.database.setCredits(UUID.randomUUID(), 200).join());
+        assertEquals(0, this.queue.depth());
+    }
+
+    private User storedUser() {
+        return this.database.jdbi().withHandle(x -> x.createQuery("SELECT * FROM MCMMOCredits WHERE UUID = :uuid").bind("uuid", this.uuid).mapTo(User.class).one());
+    }
+}
@@ -23,7 +23,6 @@
 //
 package games.cultivate.mcmmocredits.menu;
 
-import games.cultivate.mcmmocredits.user.User;
 import net.kyori.adventure.text.Component;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
@@ -38,7 +37,6 @@ import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
-import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
@@ -82,13 +80,12 @@ class ItemTest {
     }
 
     @Test
-    void parseUser_ValidItemUser_ReturnsParsedItem() {
+    void parse_NameAndLore_AppliedToCopy() {
         ItemStack stack = new ItemStack(Material.ACACIA_BOAT, 20);
         Item item = new Item(stack, "<sender_credits> credits!", List.of("<sender_redeemed> credits redeemed"), 10, ItemAction.CANCEL);
-        User user = new User(UUID.randomUUID(), "testUser", 1500, 10);
         ItemMeta meta = mock(ItemMeta.class);
         when(this.mockFactory.getItemMeta(Material.ACACIA_BOAT)).thenReturn(meta);
-        item.parseUser(user);
+        item.parse(Component.text("1500 credits!"), List.of(Component.text("10 credits redeemed")));
         verify(meta, atLeastOnce()).displayName(any(Component.class));
         verify(meta, atLeastOnce()).lore(anyList());
     }
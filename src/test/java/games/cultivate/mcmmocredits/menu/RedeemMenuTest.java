@@ -23,10 +23,13 @@
 //
 package games.cultivate.mcmmocredits.menu;
 
+import games.cultivate.mcmmocredits.user.User;
+import net.kyori.adventure.text.Component;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.inventory.ItemFactory;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
@@ -35,9 +38,21 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class RedeemMenuTest {
@@ -58,4 +73,41 @@ class RedeemMenuTest {
         assertEquals(54, menu.slots());
         assertEquals("The menu!", menu.title());
     }
+
+    @Test
+    void getEntry_Slot_ReturnsEntryWithCommand() {
+        this.mockBukkit.when(Bukkit::getItemFactory).thenReturn(this.mockFactory);
+        Item navigation = new Item(new ItemStack(Material.COMPASS), "<red>Previous Menu", List.of(), 40, ItemAction.COMMAND);
+        RedeemMenu menu = new RedeemMenu(Map.of("navigation", navigation), Map.of("navigation", "credits menu"), "The menu!", 45, false, true);
+        RedeemMenu.Entry entry = menu.getEntry(40);
+        assertNotNull(entry);
+        assertEquals("navigation", entry.key());
+        assertEquals("credits menu", entry.command());
+        assertNull(menu.getEntry(0));
+        assertNull(menu.getEntry(45));
+    }
+
+    @Test
+    void newMenu_SameContent_CompiledOnce() {
+        this.mockBukkit.when(Bukkit::getItemFactory).thenReturn(this.mockFactory);
+        Item first = new Item(new ItemStack(Material.STONE), "<sender_credits> credits!", List.of(), 0, ItemAction.CANCEL);
+        RedeemMenu menu = new RedeemMenu(Map.of("first", first, "second", first.slot(1)), "The menu!", 9, false, false);
+        assertSame(menu.getEntry(0).name(), menu.getEntry(1).name());
+        assertEquals(2, menu.entries().size());
+        assertTrue(menu.getEntry(0).uses(Set.of("sender_credits")));
+        assertFalse(menu.getEntry(0).uses(Set.of("sender_redeemed")));
+    }
+
+    @Test
+    void parseUser_ValidEntryUser_ReturnsParsedItem() {
+        this.mockBukkit.when(Bukkit::getItemFactory).thenReturn(this.mockFactory);
+        Item item = new Item(new ItemStack(Material.ACACIA_BOAT, 20), "<sender_credits> credits!", List.of("<sender_redeemed> credits redeemed"), 10, ItemAction.CANCEL);
+        RedeemMenu menu = new RedeemMenu(Map.of("item", item), "The menu!", 54, false, false);
+        User user = new User(UUID.randomUUID(), "testUser", 1500, 10);
+        ItemMeta meta = mock(ItemMeta.class);
+        when(this.mockFactory.getItemMeta(Material.ACACIA_BOAT)).thenReturn(meta);
+        menu.getEntry(10).parseUser(user);
+        verify(meta, atLeastOnce()).displayName(any(Component.class));
+        verify(meta, atLeastOnce()).lore(anyList());
+    }
 }
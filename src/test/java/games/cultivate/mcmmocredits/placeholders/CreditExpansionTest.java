@@ -35,13 +35,21 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 class CreditExpansionTest {
     private final Replacer replace = new CharsReplacer(Replacer.Closure.PERCENT);
@@ -55,7 +63,7 @@ class CreditExpansionTest {
         this.user = new User(new UUID(2, 2), "testUser", 1000, 500);
         this.service = new UserService(this.database);
         this.map = new HashMap<>();
-        this.map.put("mcmmocredits", new CreditsExpansion(this.service));
+        this.map.put("mcmmocredits", new CreditsExpansion(this.service, () -> "..."));
     }
 
     @AfterEach
@@ -69,7 +77,7 @@ class CreditExpansionTest {
         String content = "%mcmmocredits_credits%, %mcmmocredits_redeemed%, %mcmmocredits_username%, %mcmmocredits_uuid%, %mcmmocredits_cached%";
         String expected = String.format("%s, %s, %s, %s, %s", this.user.credits(), this.user.redeemed(), this.user.username(), this.user.uuid().toString(), this.service.isUserCached(this.user));
         OfflinePlayer player = mock(OfflinePlayer.class);
-        doReturn("testUser").when(player).getName();
+        doReturn(this.user.uuid()).when(player).getUniqueId();
         assertEquals(expected, this.replace.apply(content, player, this.map::get));
     }
 
@@ -78,4 +86,48 @@ class CreditExpansionTest {
         String content = "%mcmmocredits_credits%, %mcmmocredits_redeemed%, %mcmmocredits_username%, %mcmmocredits_uuid%, %mcmmocredits_cached%";
         assertEquals("0, 0, 0, 0, 0", this.replace.apply(content, null, this.map::get));
     }
+
+    @Test
+    void onRequest_SnapshotRefreshed_LeaderboardPlaceholders() {
+        User other = new User(new UUID(3, 3), "otherUser", 500, 0);
+        this.service.addUser(this.user).join();
+        this.service.addUser(other).join();
+        this.service.loadLeaderboard().join();
+        this.service.refreshSnapshot(10, List.of(other.uuid()));
+        String content = "%mcmmocredits_top_1_name%, %mcmmocredits_top_1_credits%, %mcmmocredits_top_2_name%, %mcmmocredits_rank%";
+        OfflinePlayer player = mock(OfflinePlayer.class);
+        doReturn(other.uuid()).when(player).getUniqueId();
+        assertEquals("testUser, 1000, otherUser, 2", this.replace.apply(content, player, this.map::get));
+    }
+
+    @Test
+    void onRequest_SnapshotNotRefreshed_NoLeaderboardPlaceholders() {
+        this.service.addUser(this.user).join();
+        String content = "%mcmmocredits_top_1_name%, %mcmmocredits_top_x_credits%, %mcmmocredits_top_1%";
+        assertEquals("0, 0, 0", this.replace.apply(content, null, this.map::get));
+    }
+
+    @Test
+    void onRequest_SlowDatabase_ReturnsLoadingWithinTick() {
+        AbstractDatabase slow = mock(AbstractDatabase.class);
+        CompletableFuture<Optional<User>> load = new CompletableFuture<>();
+        when(slow.getUser(this.user.uuid())).thenReturn(load);
+        Map<String, PlaceholderExpansion> expansions = Map.of("mcmmocredits", new CreditsExpansion(new UserService(slow), () -> "..."));
+        OfflinePlayer player = mock(OfflinePlayer.class);
+        doReturn(this.user.uuid()).when(player).getUniqueId();
+        String result = assertTimeoutPreemptively(Duration.ofMillis(50), () -> this.replace.apply("%mcmmocredits_credits%", player, expansions::get));
+        assertEquals("...", result);
+        assertEquals("...", this.replace.apply("%mcmmocredits_credits%", player, expansions::get));
+        load.complete(Optional.of(this.user));
+        assertEquals("1000", this.replace.apply("%mcmmocredits_credits%", player, expansions::get));
+        verify(slow, times(1)).getUser(this.user.uuid());
+    }
+
+    @Test
+    void onRequest_UserDoesNotExist_NoPlaceholders() {
+        OfflinePlayer player = mock(OfflinePlayer.class);
+        doReturn(this.user.uuid()).when(player).getUniqueId();
+        this.service.getUser(this.user.uuid()).join();
+        assertEquals("0", this.replace.apply("%mcmmocredits_credits%", player, this.map::get));
+    }
 }
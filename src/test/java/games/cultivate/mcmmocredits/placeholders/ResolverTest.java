@@ -39,6 +39,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -118,6 +121,35 @@ class ResolverTest {
         assertEquals(tagResolver, resolver.toTagResolver());
     }
 
+    @Test
+    void toTagResolver_NoTagAdded_ReturnsCachedResolver() {
+        Resolver resolver = Resolver.ofUser(this.sender);
+        TagResolver tagResolver = resolver.toTagResolver();
+        assertSame(tagResolver, resolver.toTagResolver());
+        resolver.addTag("number", 10);
+        assertNotSame(tagResolver, resolver.toTagResolver());
+        assertEquals("10", this.convert("<number>", resolver));
+    }
+
+    @Test
+    void addTag_ExistingKey_ReplacesValue() {
+        Resolver resolver = Resolver.ofUser(this.sender).addUser(this.target, "sender");
+        assertEquals(this.target.username(), resolver.get("sender"));
+        assertEquals(String.valueOf(this.target.credits()), resolver.get("sender_credits"));
+    }
+
+    @Test
+    void addTag_ManyTags_AllTagsResolved() {
+        Resolver resolver = new Resolver();
+        for (int i = 0; i < 100; i++) {
+            resolver.addTag("key" + i, i);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(String.valueOf(i), resolver.get("key" + i));
+        }
+        assertNull(resolver.get("key100"));
+    }
+
 //    @Test
 //    void ofResult_ValidTransactionResult_BuildsCorrectResolver() {
 //        Transaction transaction = Transaction.builder(this.sender, TransactionType.SET, 25).targets(this.target).build();
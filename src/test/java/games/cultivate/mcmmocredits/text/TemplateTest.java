@@ -0,0 +1,75 @@
+//
+// MIT License
+//
+// Copyright (c) 2024 Cultivate Games
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+package games.cultivate.mcmmocredits.text;
+
+import games.cultivate.mcmmocredits.placeholders.Resolver;
+import games.cultivate.mcmmocredits.user.User;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TemplateTest {
+    private final Resolver resolver = Resolver.ofUser(new User(new UUID(1, 1), "testUser", 100, 10)).addTag("amount", 5);
+
+    @Test
+    void render_Placeholders_MatchesParsedMessage() {
+        String content = "<#FF253C>Prefix <gray><sender> has <green><sender_credits></green> credits, added <amount>! <bold><unknown></bold>";
+        Component expected = MiniMessage.miniMessage().deserialize(content, this.resolver.toTagResolver());
+        assertEquals(expected, Template.compile(content).render(this.resolver));
+    }
+
+    @Test
+    void fill_StandardAndUnknownTags_KeepsTags() {
+        Template template = Template.compile("<green><sender> <unknown> \\<amount>");
+        assertEquals("<green>testUser <unknown> \\<amount>", template.fill(this.resolver));
+    }
+
+    @Test
+    void render_NoSlots_ParsedOnce() {
+        Template template = Template.compile("<green>The configuration file has been reloaded.");
+        assertSame(template.render(this.resolver), template.render(new Resolver()));
+    }
+
+    @Test
+    void hasExternalPlaceholders_PercentSign_ReturnsTrue() {
+        assertTrue(Template.compile("%player_name% <sender>").hasExternalPlaceholders());
+        assertFalse(Template.compile("<sender>").hasExternalPlaceholders());
+    }
+
+    @Test
+    void uses_ChangedKeys_ReturnsIfSlotChanged() {
+        Template template = Template.compile("<green>Credits: <sender_credits>");
+        assertTrue(template.uses(Set.of("sender_credits")));
+        assertFalse(template.uses(Set.of("sender_redeemed")));
+        assertTrue(Template.compile("%player_name%").uses(Set.of()));
+    }
+}
@@ -30,6 +30,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -101,5 +102,10 @@ class AddTransactionTest {
         Transaction addition = new AddTransaction(this.executor, List.of(this.target, user2), 50);
         assertFalse(addition.isSelfTransaction());
     }
-}
 
+    @Test
+    void deltas_ValidTransaction_ReturnsCreditChanges() {
+        Transaction transaction = new AddTransaction(this.executor, List.of(this.target), 100);
+        assertEquals(Map.of(this.target.uuid(), 100), transaction.deltas());
+    }
+}
@@ -0,0 +1,108 @@
+//
+// MIT License
+//
+// Copyright (c) 2024 Cultivate Games
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+package games.cultivate.mcmmocredits.transaction;
+
+import games.cultivate.mcmmocredits.database.AbstractDatabase;
+import games.cultivate.mcmmocredits.database.DatabaseUtil;
+import games.cultivate.mcmmocredits.user.Console;
+import games.cultivate.mcmmocredits.user.User;
+import games.cultivate.mcmmocredits.user.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkTransactionEngineTest {
+    private final AbstractDatabase database = DatabaseUtil.create("bulk");
+    private UserService service;
+    private BulkTransactionEngine bulk;
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        this.service = new UserService(this.database);
+        this.bulk = new BulkTransactionEngine(new TransactionEngine(this.service), this.service, ForkJoinPool.commonPool(), Logger.getLogger("Minecraft"));
+        this.users = IntStream.range(0, 600).mapToObj(i -> new User(UUID.randomUUID(), "tester" + i, i % 2 == 0 ? 100 : 5, 0)).toList();
+        this.database.addUsers(this.users).join();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.database.jdbi().useHandle(x -> x.execute("DELETE FROM MCMMOCredits"));
+    }
+
+    @Test
+    void execute_AddAll_UpdatesEveryUser() {
+        Transaction transaction = Transaction.builder(Console.INSTANCE, TransactionType.ADDALL, 10).targets(new ArrayList<>(this.users)).build();
+        TransactionResult result = this.bulk.execute(transaction, (k, v) -> { }).join().orElseThrow();
+        assertEquals(600, result.targets().size());
+        this.users.forEach(x -> assertEquals(x.credits() + 10, this.database.getUser(x.uuid()).join().orElseThrow().credits()));
+        this.users.forEach(x -> assertEquals(x.credits() + 10, this.service.getCredits(x.uuid()).join()));
+    }
+
+    @Test
+    void execute_TakeAll_RejectsOverdrafts() {
+        Set<UUID> failures = ConcurrentHashMap.newKeySet();
+        Transaction transaction = Transaction.builder(Console.INSTANCE, TransactionType.TAKEALL, 10).targets(new ArrayList<>(this.users)).build();
+        TransactionResult result = this.bulk.execute(transaction, (k, v) -> failures.add(k.uuid())).join().orElseThrow();
+        assertEquals(300, failures.size());
+        assertEquals(300, result.targets().size());
+        this.users.forEach(x -> {
+            int expected = failures.contains(x.uuid()) ? x.credits() : x.credits() - 10;
+            assertEquals(expected, this.database.getUser(x.uuid()).join().orElseThrow().credits());
+        });
+    }
+
+    @Test
+    void execute_SetAll_OverwritesEveryUser() {
+        Transaction transaction = Transaction.builder(Console.INSTANCE, TransactionType.SETALL, 42).targets(new ArrayList<>(this.users)).build();
+        this.bulk.execute(transaction, (k, v) -> { }).join().orElseThrow();
+        this.users.forEach(x -> assertEquals(42, this.database.getUser(x.uuid()).join().orElseThrow().credits()));
+    }
+
+    @Test
+    void execute_AllRejected_ReturnsEmpty() {
+        Transaction transaction = Transaction.builder(Console.INSTANCE, TransactionType.TAKEALL, 1000).targets(new ArrayList<>(this.users)).build();
+        assertTrue(this.bulk.execute(transaction, (k, v) -> { }).join().isEmpty());
+    }
+
+    @Test
+    void forEachChunk_ManyUsers_VisitsEachOnce() {
+        AtomicInteger count = new AtomicInteger();
+        this.bulk.forEachChunk(this.users, x -> count.incrementAndGet()).join();
+        assertEquals(600, count.get());
+    }
+}
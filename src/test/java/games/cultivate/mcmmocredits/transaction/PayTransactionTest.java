@@ -28,6 +28,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -69,10 +70,22 @@ class PayTransactionTest {
         assertEquals(Optional.of("credits-pay-same-user"), sub.validate(this.target));
     }
 
+    @Test
+    void deltas_SelfTransaction_NoChange() {
+        Transaction self = new PayTransaction(this.target, List.of(this.target), 100);
+        assertEquals(Map.of(this.target.uuid(), 0), self.deltas());
+    }
+
     @Test
     void validateTransaction_OverriddenMethod_DetectsInvalidUsers() {
         Transaction invalid = new PayTransaction(this.executor, List.of(this.target), 1501);
         var map = invalid.validateTransaction();
         assertEquals(Optional.of("not-enough-credits"), map.get(this.target));
     }
+
+    @Test
+    void deltas_ValidTransaction_ReturnsCreditChanges() {
+        Transaction pay = new PayTransaction(this.executor, List.of(this.target), 600);
+        assertEquals(Map.of(this.executor.uuid(), -600, this.target.uuid(), 600), pay.deltas());
+    }
 }
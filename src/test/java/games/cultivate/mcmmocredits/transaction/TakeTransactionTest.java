@@ -28,6 +28,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -68,4 +69,10 @@ class TakeTransactionTest {
         Transaction sub = new TakeTransaction(this.executor, List.of(this.target), 1600);
         assertEquals(Optional.of("not-enough-credits"), sub.validate(this.target));
     }
+
+    @Test
+    void deltas_ValidTransaction_ReturnsCreditChanges() {
+        Transaction transaction = new TakeTransaction(this.executor, List.of(this.target), 100);
+        assertEquals(Map.of(this.target.uuid(), -100), transaction.deltas());
+    }
 }
@@ -0,0 +1,189 @@
+//
+// MIT License
+//
+// Copyright (c) 2024 Cultivate Games
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+package games.cultivate.mcmmocredits.transaction;
+
+import com.gmail.nossr50.config.GeneralConfig;
+import com.gmail.nossr50.datatypes.player.McMMOPlayer;
+import com.gmail.nossr50.datatypes.player.PlayerProfile;
+import com.gmail.nossr50.datatypes.skills.PrimarySkillType;
+import com.gmail.nossr50.mcMMO;
+import com.gmail.nossr50.util.player.UserManager;
+import games.cultivate.mcmmocredits.MCMMOCreditsAPI;
+import games.cultivate.mcmmocredits.database.AbstractDatabase;
+import games.cultivate.mcmmocredits.database.DatabaseUtil;
+import games.cultivate.mcmmocredits.user.Console;
+import games.cultivate.mcmmocredits.user.User;
+import games.cultivate.mcmmocredits.user.UserService;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransactionEngineTest {
+    private final AbstractDatabase database = DatabaseUtil.create("engine");
+    private UserService service;
+    private TransactionEngine engine;
+    private User first;
+    private User second;
+
+    @BeforeEach
+    void setUp() {
+        this.service = new UserService(this.database);
+        this.engine = new TransactionEngine(this.service);
+        this.first = new User(UUID.randomUUID(), "tester1", 100, 0);
+        this.second = new User(UUID.randomUUID(), "tester2", 100, 0);
+        this.service.addUser(this.first).join();
+        this.service.addUser(this.second).join();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.database.jdbi().useHandle(x -> x.execute("DELETE FROM MCMMOCredits"));
+    }
+
+    @Test
+    void submit_ConcurrentReadModifyWrite_NoLostUpdates() {
+        UUID uuid = this.first.uuid();
+        List<CompletableFuture<Boolean>> futures = IntStream.range(0, 1000).parallel()
+                .mapToObj(i -> this.engine.submit(Set.of(uuid), () -> this.service.getUser(uuid).thenCompose(x -> this.service.setCredits(uuid, x.orElseThrow().credits() + 1))))
+                .toList();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        assertEquals(1100, this.service.getCredits(uuid).join());
+        assertEquals(1100, this.database.getUser(uuid).join().orElseThrow().credits());
+    }
+
+    @Test
+    void execute_InterleavedSetAndTake_AppliedInOrder() {
+        AtomicInteger failures = new AtomicInteger();
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            futures.add(this.engine.execute(Transaction.builder(Console.INSTANCE, TransactionType.SET, 10).targets(this.first).build(), (k, v) -> failures.incrementAndGet()));
+            futures.add(this.engine.execute(Transaction.builder(Console.INSTANCE, TransactionType.TAKE, 10).targets(this.first).build(), (k, v) -> failures.incrementAndGet()));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        assertEquals(0, failures.get());
+        assertEquals(0, this.service.getCredits(this.first.uuid()).join());
+        assertEquals(0, this.database.getUser(this.first.uuid()).join().orElseThrow().credits());
+    }
+
+    @Test
+    void setCredits_InterleavedWithTake_AppliedInOrder() {
+        AtomicInteger failures = new AtomicInteger();
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            futures.add(this.engine.setCredits(this.first.uuid(), 10));
+            futures.add(this.engine.execute(Transaction.builder(Console.INSTANCE, TransactionType.TAKE, 10).targets(this.first).build(), (k, v) -> failures.incrementAndGet()));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        assertEquals(0, failures.get());
+        assertEquals(0, this.service.getCredits(this.first.uuid()).join());
+    }
+
+    @Test
+    void execute_ApiAddsDuringRedeems_NoLostUpdates() {
+        UUID uuid = this.first.uuid();
+        Player player = mock(Player.class);
+        McMMOPlayer mcmmoPlayer = mock(McMMOPlayer.class);
+        PlayerProfile profile = mock(PlayerProfile.class);
+        GeneralConfig config = mock(GeneralConfig.class);
+        mcMMO.p = mock(mcMMO.class);
+        when(mcMMO.p.getGeneralConfig()).thenReturn(config);
+        when(config.getLevelCap(PrimarySkillType.HERBALISM)).thenReturn(Integer.MAX_VALUE);
+        when(mcmmoPlayer.getProfile()).thenReturn(profile);
+        when(profile.isLoaded()).thenReturn(true);
+        //Static mocks are thread-local, so each thread which can run a redeem mocks Bukkit and mcMMO for itself.
+        ExecutorService pool = Executors.newFixedThreadPool(4, r -> new Thread(() -> {
+            try (MockedStatic<Bukkit> bukkit = mockStatic(Bukkit.class); MockedStatic<UserManager> users = mockStatic(UserManager.class)) {
+                bukkit.when(() -> Bukkit.getPlayer(uuid)).thenReturn(player);
+                users.when(() -> UserManager.getPlayer(player)).thenReturn(mcmmoPlayer);
+                r.run();
+            }
+        }));
+        UserService service = spy(this.service);
+        doAnswer(x -> ((CompletableFuture<?>) x.callRealMethod()).thenApplyAsync(y -> y, pool)).when(service).getUser(any(UUID.class));
+        doAnswer(x -> ((CompletableFuture<?>) x.callRealMethod()).thenApplyAsync(y -> y, pool)).when(service).addCredits(any(UUID.class), anyInt());
+        doAnswer(x -> ((CompletableFuture<?>) x.callRealMethod()).thenApplyAsync(y -> y, pool)).when(service).processTransaction(any());
+        TransactionEngine engine = new TransactionEngine(service);
+        MCMMOCreditsAPI api = new MCMMOCreditsAPI(service, engine);
+        AtomicInteger failures = new AtomicInteger();
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Transaction redeem = Transaction.builder(Console.INSTANCE, TransactionType.REDEEM, 1).skill(PrimarySkillType.HERBALISM).targets(this.first).build();
+            futures.add(CompletableFuture.supplyAsync(() -> engine.execute(redeem, (k, v) -> failures.incrementAndGet()), pool).thenCompose(x -> x));
+            futures.add(api.addCreditsAsync(uuid, 1));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        pool.shutdown();
+        User user = this.database.getUser(uuid).join().orElseThrow();
+        assertEquals(0, failures.get());
+        assertEquals(100, user.credits());
+        assertEquals(100, user.redeemed());
+        verify(profile, times(100)).addLevels(PrimarySkillType.HERBALISM, 1);
+    }
+
+    @Test
+    void execute_ConcurrentPayments_OverdraftsRejected() {
+        AtomicInteger failures = new AtomicInteger();
+        List<CompletableFuture<?>> futures = IntStream.range(0, 200).parallel()
+                .mapToObj(i -> this.engine.execute(Transaction.builder(this.first, TransactionType.PAY, 1).targets(this.second).build(), (k, v) -> failures.incrementAndGet()))
+                .toList();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        assertEquals(100, failures.get());
+        assertEquals(0, this.service.getCredits(this.first.uuid()).join());
+        assertEquals(200, this.service.getCredits(this.second.uuid()).join());
+    }
+
+    @Test
+    void execute_SelfPay_RejectedWithoutChange() {
+        AtomicInteger failures = new AtomicInteger();
+        Transaction pay = Transaction.builder(this.first, TransactionType.PAY, 10).targets(this.first).build();
+        assertTrue(this.engine.execute(pay, (k, v) -> failures.incrementAndGet()).join().isEmpty());
+        assertEquals(1, failures.get());
+        assertEquals(100, this.service.getCredits(this.first.uuid()).join());
+    }
+}
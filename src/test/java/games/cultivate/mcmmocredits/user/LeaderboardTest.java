@@ -0,0 +1,165 @@
+//
+// MIT License
+//
+// Copyright (c) 2024 Cultivate Games
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+package games.cultivate.mcmmocredits.user;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LeaderboardTest {
+    private Leaderboard leaderboard;
+    private User first;
+    private User second;
+    private User third;
+
+    @BeforeEach
+    void setUp() {
+        this.leaderboard = new Leaderboard();
+        this.first = new User(UUID.randomUUID(), "First", 300, 0);
+        this.second = new User(UUID.randomUUID(), "Second", 200, 0);
+        this.third = new User(UUID.randomUUID(), "Third", 100, 0);
+    }
+
+    @Test
+    void update_NotLoaded_Ignored() {
+        this.leaderboard.update(this.first);
+        assertFalse(this.leaderboard.loaded());
+        assertEquals(0, this.leaderboard.size());
+        assertEquals(0, this.leaderboard.rank(this.first.uuid()));
+    }
+
+    @Test
+    void finishLoad_Users_RankedByCredits() {
+        this.leaderboard.startLoad();
+        this.leaderboard.load(List.of(this.third, this.first, this.second));
+        this.leaderboard.finishLoad();
+        assertTrue(this.leaderboard.loaded());
+        assertEquals(List.of(this.first, this.second, this.third), this.leaderboard.range(10, 0));
+        assertEquals(List.of(this.second), this.leaderboard.range(1, 1));
+        assertEquals(3, this.leaderboard.rank(this.third.uuid()));
+    }
+
+    @Test
+    void update_CreditsChanged_RankChanged() {
+        this.leaderboard.startLoad();
+        this.leaderboard.load(List.of(this.first, this.second, this.third));
+        this.leaderboard.finishLoad();
+        this.leaderboard.update(this.third.uuid(), x -> x.setCredits(1000));
+        assertEquals(1, this.leaderboard.rank(this.third.uuid()));
+        assertEquals(3, this.leaderboard.rank(this.second.uuid()));
+        assertEquals(3, this.leaderboard.size());
+    }
+
+    @Test
+    void finishLoad_UpdatedWhileLoading_UpdateKept() {
+        this.leaderboard.startLoad();
+        this.leaderboard.update(this.third.setCredits(1000));
+        this.leaderboard.load(List.of(this.first, this.second, this.third));
+        this.leaderboard.finishLoad();
+        assertEquals(List.of(this.third.setCredits(1000), this.first, this.second), this.leaderboard.range(3, 0));
+    }
+
+    @Test
+    void finishLoad_WriteWhileFirstLoad_WriteKept() {
+        this.leaderboard.startLoad();
+        this.leaderboard.update(this.third.uuid(), x -> x.setCredits(1000));
+        this.leaderboard.load(List.of(this.first, this.second, this.third));
+        this.leaderboard.finishLoad();
+        assertEquals(List.of(this.third.setCredits(1000), this.first, this.second), this.leaderboard.range(3, 0));
+    }
+
+    @Test
+    void finishLoad_EqualCredits_RankedInLoadOrder() {
+        User tied = new User(new UUID(0, 1), "Tied", 300, 0);
+        User earlier = new User(new UUID(0, 2), "Earlier", 300, 0);
+        this.leaderboard.startLoad();
+        this.leaderboard.load(List.of(earlier, tied));
+        this.leaderboard.finishLoad();
+        User renamed = new User(earlier.uuid(), "Renamed", 300, 0);
+        this.leaderboard.update(renamed);
+        assertEquals(List.of(renamed, tied), this.leaderboard.range(2, 0));
+        assertEquals(2, this.leaderboard.rank(tied.uuid()));
+    }
+
+    @Test
+    void snapshot_Loaded_ContainsTopAndRanks() {
+        this.leaderboard.startLoad();
+        this.leaderboard.load(List.of(this.first, this.second, this.third));
+        this.leaderboard.finishLoad();
+        Leaderboard.Snapshot snapshot = this.leaderboard.snapshot(1, List.of(this.third.uuid()));
+        this.leaderboard.update(this.third.uuid(), x -> x.setCredits(1000));
+        assertEquals(this.first, snapshot.top(1));
+        assertNull(snapshot.top(2));
+        assertEquals(1, snapshot.rank(this.first.uuid()));
+        assertEquals(0, snapshot.rank(this.second.uuid()));
+        assertEquals(3, snapshot.rank(this.third.uuid()));
+    }
+
+    @Test
+    void range_OutOfBounds_ReturnsEmptyList() {
+        this.leaderboard.startLoad();
+        this.leaderboard.load(List.of(this.first));
+        this.leaderboard.finishLoad();
+        assertTrue(this.leaderboard.range(10, 5).isEmpty());
+    }
+
+    @Test
+    void update_RandomWrites_MatchesSortedList() {
+        Random random = new Random(1);
+        Map<UUID, User> users = new HashMap<>();
+        Map<UUID, Integer> order = new HashMap<>();
+        List<UUID> uuids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            User user = new User(UUID.randomUUID(), "User" + i, random.nextInt(100), 0);
+            users.put(user.uuid(), user);
+            order.put(user.uuid(), i);
+            uuids.add(user.uuid());
+        }
+        this.leaderboard.startLoad();
+        this.leaderboard.load(uuids.stream().map(users::get).toList());
+        this.leaderboard.finishLoad();
+        for (int i = 0; i < 5000; i++) {
+            User user = users.get(uuids.get(random.nextInt(uuids.size()))).setCredits(random.nextInt(100));
+            users.put(user.uuid(), user);
+            this.leaderboard.update(user);
+        }
+        List<User> expected = users.values().stream().sorted(Comparator.comparingInt(User::credits).reversed().thenComparing(x -> order.get(x.uuid()))).toList();
+        assertEquals(expected, this.leaderboard.range(expected.size(), 0));
+        for (int i = 0; i < expected.size(); i += 97) {
+            assertEquals(i + 1, this.leaderboard.rank(expected.get(i).uuid()));
+        }
+    }
+}
@@ -25,8 +25,12 @@ package games.cultivate.mcmmocredits.user;
 
 import games.cultivate.mcmmocredits.database.AbstractDatabase;
 import games.cultivate.mcmmocredits.database.DatabaseUtil;
+import games.cultivate.mcmmocredits.database.LeaderboardPage;
+import games.cultivate.mcmmocredits.database.LoginResult;
 import games.cultivate.mcmmocredits.transaction.AddTransaction;
+import games.cultivate.mcmmocredits.transaction.TakeTransaction;
 import games.cultivate.mcmmocredits.transaction.Transaction;
+import games.cultivate.mcmmocredits.transaction.TransactionEngine;
 import games.cultivate.mcmmocredits.transaction.TransactionResult;
 import games.cultivate.mcmmocredits.util.MojangUtil;
 import org.bukkit.Bukkit;
@@ -41,14 +45,23 @@ import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -150,6 +163,23 @@ class UserServiceTest {
         assertEquals(1100, this.service.getUser(this.user.uuid()).join().orElseThrow().credits());
     }
 
+    @Test
+    void processTransaction_DeltaRejected_ReturnsEmpty() {
+        this.service.addUser(this.user).join();
+        User stale = new User(this.user.uuid(), this.user.username(), 1000, 50);
+        TransactionResult result = new TakeTransaction(stale, List.of(stale), 500).execute();
+        assertTrue(this.service.processTransaction(result).join().isEmpty());
+        assertEquals(100, this.service.getCredits(this.user.uuid()).join());
+    }
+
+    @Test
+    void processTransaction_DeltaApplied_ReturnsStoredUsers() {
+        this.service.addUser(this.user).join();
+        User stale = new User(this.user.uuid(), this.user.username(), 1000, 50);
+        TransactionResult result = new AddTransaction(stale, List.of(stale), 10).execute();
+        assertEquals(110, this.service.processTransaction(result).join().orElseThrow().targets().get(0).credits());
+    }
+
     @Test
     void rangeOfUsers_ReturnsPageOfUsers() {
         User tester = new User(UUID.randomUUID(), "TestUser2", 50, 10);
@@ -160,6 +190,175 @@ class UserServiceTest {
         assertEquals(users, result);
     }
 
+    @Test
+    void getUser_UsernameDifferentCase_ReturnsCachedUser() {
+        this.service.addUser(this.user).join();
+        this.database.jdbi().useHandle(x -> x.execute("DELETE FROM MCMMOCredits"));
+        assertEquals(this.user, this.service.getUser("tESTER").join().orElseThrow());
+    }
+
+    @Test
+    void removeFromCache_CachedUser_UsernameNotCached() {
+        this.service.addUser(this.user).join();
+        this.service.removeFromCache(this.user.uuid());
+        assertFalse(this.service.isUserCached(this.user));
+        this.database.jdbi().useHandle(x -> x.execute("DELETE FROM MCMMOCredits"));
+        assertTrue(this.service.getUser(this.user.username()).join().isEmpty());
+    }
+
+    @Test
+    void getUser_RecentlyMissingUsername_SkipsDatabase() {
+        assertTrue(this.service.getUser(this.user.username()).join().isEmpty());
+        this.database.addUser(this.user).join();
+        assertTrue(this.service.getUser(this.user.username()).join().isEmpty());
+        assertTrue(this.service.getUser(this.user.uuid()).join().isPresent());
+    }
+
+    @Test
+    void addUser_RecentlyMissingUser_UserFound() {
+        assertTrue(this.service.getUser(this.user.username()).join().isEmpty());
+        assertTrue(this.service.getUser(this.user.uuid()).join().isEmpty());
+        this.service.addUser(this.user).join();
+        assertEquals(this.user, this.service.getUser(this.user.username()).join().orElseThrow());
+        assertEquals(this.user, this.service.getUser(this.user.uuid()).join().orElseThrow());
+    }
+
+    @Test
+    void getUser_ConcurrentMisses_SharesDatabaseLoad() {
+        AbstractDatabase slow = mock(AbstractDatabase.class);
+        CompletableFuture<Optional<User>> pending = new CompletableFuture<>();
+        when(slow.getUser(this.user.uuid())).thenReturn(pending);
+        UserService slowService = new UserService(slow);
+        CompletableFuture<Optional<User>> first = slowService.getUser(this.user.uuid());
+        CompletableFuture<Optional<User>> second = slowService.getUser(this.user.uuid());
+        pending.complete(Optional.of(this.user));
+        assertEquals(this.user, first.join().orElseThrow());
+        assertEquals(this.user, second.join().orElseThrow());
+        assertEquals(this.user, slowService.getUser(this.user.uuid()).join().orElseThrow());
+        verify(slow, times(1)).getUser(this.user.uuid());
+        assertEquals(1, slowService.deduplicatedLoads());
+    }
+
+    @Test
+    void setCreditsAndUsername_ThousandsOfConcurrentCalls_AllComplete() {
+        List<User> users = IntStream.range(0, 500).mapToObj(i -> new User(UUID.randomUUID(), "stress" + i, 0, 0)).toList();
+        this.service.addUser(this.user).join();
+        this.database.addUsers(users).join();
+        TransactionEngine engine = new TransactionEngine(this.service);
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 4000; i++) {
+            futures.add(engine.setCredits(this.user.uuid(), i));
+        }
+        users.forEach(x -> futures.add(this.service.setUsername(x.uuid(), x.username() + "_")));
+        assertTimeoutPreemptively(Duration.ofSeconds(60), () -> CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join());
+        assertEquals(500, users.stream().filter(x -> this.service.getUser(x.uuid()).join().orElseThrow().username().endsWith("_")).count());
+        assertEquals(this.database.getUser(this.user.uuid()).join(), this.service.getUser(this.user.uuid()).join());
+    }
+
+    @Test
+    void cacheStats_CachedLookup_RecordsHit() {
+        this.service.addUser(this.user).join();
+        this.service.getUser(this.user.uuid()).join();
+        assertEquals(1, this.service.cacheStats().hitCount());
+        assertEquals(1, this.service.cacheSize());
+    }
+
+    @Test
+    void pin_CachedUser_UserStillCached() {
+        AtomicLong nanos = new AtomicLong();
+        UserService timed = new UserService(this.database, 10, 1, 10, nanos::get);
+        User other = new User(UUID.randomUUID(), "Unpinned", 10, 0);
+        timed.addUser(this.user).join();
+        timed.addUser(other).join();
+        timed.pin(this.user.uuid());
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        assertTrue(timed.isUserCached(this.user));
+        assertFalse(timed.isUserCached(other));
+        timed.unpin(this.user.uuid());
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        assertFalse(timed.isUserCached(this.user));
+    }
+
+    @Test
+    void login_NewUser_UserCached() {
+        LoginResult result = this.service.login(this.user.uuid(), this.user.username()).join();
+        assertTrue(result.created());
+        assertTrue(this.service.isUserCached(result.user()));
+    }
+
+    @Test
+    void pageOfUsers_SecondPage_ReturnsRankedUsers() {
+        User tester = new User(UUID.randomUUID(), "TestUser2", 50, 10);
+        this.service.addUser(this.user).join();
+        this.service.addUser(tester).join();
+        assertEquals(List.of(this.user), this.service.pageOfUsers(1, 1).join().users());
+        LeaderboardPage page = this.service.pageOfUsers(2, 1).join();
+        assertEquals(List.of(tester), page.users());
+        assertEquals(2, page.rank());
+    }
+
+    @Test
+    void pageOfUsers_PreviousPage_ContinuesAfterPreviousPage() {
+        User tester = new User(UUID.randomUUID(), "TestUser2", 50, 10);
+        this.service.addUser(this.user).join();
+        this.service.addUser(tester).join();
+        LeaderboardPage first = this.service.pageOfUsers(1, 1, null).join();
+        this.service.addUser(new User(UUID.randomUUID(), "TestUser3", 1000, 10)).join();
+        LeaderboardPage second = this.service.pageOfUsers(2, 1, first).join();
+        assertEquals(List.of(tester), second.users());
+        assertEquals(2, second.rank());
+    }
+
+    @Test
+    void pageOfUsers_LeaderboardLoaded_ReflectsWrites() {
+        User tester = new User(UUID.randomUUID(), "TestUser2", 50, 10);
+        this.service.addUser(this.user).join();
+        this.service.addUser(tester).join();
+        this.service.loadLeaderboard().join();
+        this.service.setCredits(tester.uuid(), 500).join();
+        LeaderboardPage page = this.service.pageOfUsers(1, 2).join();
+        assertEquals(List.of(tester.setCredits(500), this.user), page.users());
+        assertEquals(1, page.rank());
+    }
+
+    @Test
+    void pageOfUser_LeaderboardLoaded_ReturnsPageOfUser() {
+        User tester = new User(UUID.randomUUID(), "TestUser2", 50, 10);
+        this.service.addUser(this.user).join();
+        this.service.addUser(tester).join();
+        this.service.loadLeaderboard().join();
+        LeaderboardPage page = this.service.pageOfUser(tester.uuid(), 1).join();
+        assertEquals(List.of(tester), page.users());
+        assertEquals(2, page.rank());
+    }
+
+    @Test
+    void loadLeaderboard_ChangedByOtherServer_Reconciled() {
+        this.service.addUser(this.user).join();
+        this.service.loadLeaderboard().join();
+        User other = new User(UUID.randomUUID(), "TestUser2", 500, 10);
+        this.database.addUser(other).join();
+        assertEquals(List.of(this.user), this.service.pageOfUsers(1, 2).join().users());
+        this.service.loadLeaderboard().join();
+        assertEquals(List.of(other, this.user), this.service.pageOfUsers(1, 2).join().users());
+    }
+
+    @Test
+    void watch_CreditsChanged_WatcherNotified() {
+        this.service.addUser(this.user).join();
+        List<User> changes = new ArrayList<>();
+        Runnable unwatch = this.service.watch(this.user.uuid(), (x, y) -> {
+            changes.add(x);
+            changes.add(y);
+        });
+        this.service.setCredits(this.user.uuid(), 500).join();
+        this.service.setCredits(this.user.uuid(), 500).join();
+        assertEquals(List.of(this.user, this.user.setCredits(500)), changes);
+        unwatch.run();
+        this.service.setCredits(this.user.uuid(), 1000).join();
+        assertEquals(2, changes.size());
+    }
+
     @Test
     void fromSender_SenderIsPlayer_ReturnsUser() {
         this.service.addUser(this.user).join();